@@ -0,0 +1,127 @@
+package com.api.feedFormulation.benchmark;
+
+import com.api.feedFormulation.FeedFormulationApplication;
+import com.api.feedFormulation.dto.FeedRequestDTO;
+import com.api.feedFormulation.dto.FeedResponseDTO;
+import com.api.feedFormulation.dto.SolverMode;
+import com.api.feedFormulation.model.FeedResponse;
+import com.api.feedFormulation.model.Ingredient;
+import com.api.feedFormulation.service.FeedFormulationService;
+import com.api.feedFormulation.utils.FeedFormulationSupport;
+import com.api.feedFormulation.utils.IngredientTable;
+import com.api.feedFormulation.utils.LeastCostSolver;
+import com.api.feedFormulation.utils.PearsonSquareSolver;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks of the formulation hot path, from the solvers up to calculateFeed on the H2 stand-in.
+ * Run with the gc profiler enabled by the jmh profile, so every result also reports allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedFormulationBenchmark {
+
+    private final AtomicLong names = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private FeedFormulationSupport support;
+    private FeedFormulationService service;
+    private ObjectMapper objectMapper;
+    private IngredientTable table;
+    private LeastCostSolver leastCostSolver;
+    private FeedResponse feedResponse;
+    private FeedResponseDTO feedResponseDTO;
+    private double target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(FeedFormulationApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                .properties("logging.level.root=warn",
+                        "spring.jpa.properties.hibernate.generate_statistics=false")
+                .run();
+        support = context.getBean(FeedFormulationSupport.class);
+        service = context.getBean(FeedFormulationService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        table = support.getIngredientTable();
+        leastCostSolver = new LeastCostSolver();
+
+        List<Ingredient> ingredients = support.createIngredients(100, 18, SolverMode.PEARSON_SQUARE);
+        feedResponse = FeedResponse.builder()
+                .formulationId(support.generateGuid())
+                .formulationName("benchmark")
+                .date(LocalDate.now())
+                .quantity(100)
+                .targetCpValue(18)
+                .ingredients(ingredients)
+                .build();
+        support.setFeedResponseToIngredients(feedResponse, ingredients);
+        feedResponseDTO = support.mapToDTO(feedResponse);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public double[] pearsonSquare() {
+        double[] out = new double[table.size()];
+        PearsonSquareSolver.solve(table, 100, nextTarget(), out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] leastCost() {
+        double[] out = new double[table.size()];
+        leastCostSolver.solve(table, 2800, 1.0, 100, nextTarget(), out);
+        return out;
+    }
+
+    @Benchmark
+    public List<Ingredient> createIngredients() {
+        return support.createIngredients(100, 18, SolverMode.PEARSON_SQUARE);
+    }
+
+    @Benchmark
+    public FeedResponseDTO mapToDTO() {
+        return support.mapToDTO(feedResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(feedResponseDTO);
+    }
+
+    @Benchmark
+    public FeedResponseDTO calculateFeed() {
+        return service.calculateFeed(FeedRequestDTO.builder()
+                .formulationName("benchmark-" + names.incrementAndGet())
+                .quantity(100)
+                .targetCpValue(18)
+                .build());
+    }
+
+    /**
+     * Steps the target between 12 and 24 so the solver benchmarks cannot be constant-folded
+     * and the least-cost warm start sees realistic target changes.
+     */
+    private double nextTarget() {
+        target = target >= 24 ? 12 : target + 0.25;
+        return target;
+    }
+}
@@ -0,0 +1,32 @@
+package com.api.feedFormulation.cache;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * A formulation serialized once as UTF-8 JSON, with a strong ETag derived from the same bytes.
+ * The byte array is shared by every reader and must not be modified.
+ */
+public final class CachedFormulation {
+
+    private final byte[] json;
+    private final String etag;
+
+    CachedFormulation(byte[] json) {
+        this.json = json;
+        this.etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+    }
+
+    /**
+     * @return The JSON representation of the formulation.
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * @return The quoted ETag of the JSON representation.
+     */
+    public String getEtag() {
+        return etag;
+    }
+}
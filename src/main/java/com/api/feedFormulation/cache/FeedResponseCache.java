@@ -0,0 +1,179 @@
+package com.api.feedFormulation.cache;
+
+import com.api.feedFormulation.dto.CacheStatsDTO;
+import com.api.feedFormulation.dto.FeedResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of formulations keyed by formulation ID and date.
+ * Entries are held as serialized JSON, so every reader gets its own copy of the DTO,
+ * and the same bytes can be written to the response without serializing again.
+ * <p>
+ * Misses are loaded on the calling thread outside of the cache's internal locks, so a database
+ * load never holds a monitor and cannot pin a virtual thread; concurrent readers of the same key
+ * wait on the loader's future instead of querying again.
+ */
+@Component
+public class FeedResponseCache implements MeterBinder {
+
+    public static final String NAME = "feedResponses";
+
+    private final AsyncCache<Key, CachedFormulation> cache;
+    private final ObjectMapper objectMapper;
+
+    public FeedResponseCache(@Value("${feedFormulation.cache.response.maxSize}") long maxSize,
+                             ObjectMapper objectMapper) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync();
+        this.objectMapper = objectMapper;
+    }
+
+    private record Key(String formulationId, LocalDate date) {
+    }
+
+    /**
+     * Returns the cached formulation, loading and caching it on a miss.
+     * Exceptions thrown by the loader propagate and nothing is cached.
+     *
+     * @param formulationId The ID of the formulation.
+     * @param date          The date of the formulation.
+     * @param loader        Loads the formulation from the database.
+     * @return A fresh FeedResponseDTO for the formulation.
+     */
+    public FeedResponseDTO get(String formulationId, LocalDate date, Supplier<FeedResponseDTO> loader) {
+        byte[] json = getSerialized(formulationId, date, loader).getJson();
+        try {
+            return objectMapper.readValue(json, FeedResponseDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the cached serialized formulation, loading and caching it on a miss.
+     * Exceptions thrown by the loader propagate and nothing is cached. A failed load is removed and
+     * its future cancelled rather than failed, so the cache does not log expected errors such as an
+     * unknown formulation, and readers that were waiting on it load again themselves.
+     *
+     * @param formulationId The ID of the formulation.
+     * @param date          The date of the formulation.
+     * @param loader        Loads the formulation from the database.
+     * @return The JSON bytes and ETag of the formulation.
+     */
+    public CachedFormulation getSerialized(String formulationId, LocalDate date, Supplier<FeedResponseDTO> loader) {
+        Key key = new Key(formulationId, date);
+        while (true) {
+            CompletableFuture<CachedFormulation> created = new CompletableFuture<>();
+            CompletableFuture<CachedFormulation> entry = cache.get(key, (k, executor) -> created);
+            if (entry == created) {
+                CachedFormulation loaded;
+                try {
+                    loaded = serialize(loader.get());
+                } catch (RuntimeException e) {
+                    cache.asMap().remove(key, created);
+                    created.cancel(false);
+                    throw e;
+                }
+                created.complete(loaded);
+                return loaded;
+            }
+            try {
+                return entry.join();
+            } catch (CancellationException e) {
+                // The load this reader waited on failed; load again to get its own result or error
+            }
+        }
+    }
+
+    /**
+     * Serializes a formulation that was just created or updated and caches it once the
+     * current transaction commits; nothing is cached if the transaction rolls back.
+     *
+     * @param formulation The formulation as written.
+     */
+    public void putAfterCommit(FeedResponseDTO formulation) {
+        Key key = new Key(formulation.getFormulationId(), LocalDate.parse(formulation.getDate()));
+        CachedFormulation entry = serialize(formulation);
+        cache.synchronous().invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(key, CompletableFuture.completedFuture(entry));
+                }
+            });
+        } else {
+            cache.put(key, CompletableFuture.completedFuture(entry));
+        }
+    }
+
+    /**
+     * Evicts a formulation now and again once the current transaction commits,
+     * so that a read racing with the write cannot leave the old version cached.
+     *
+     * @param formulationId The ID of the formulation.
+     * @param date          The date of the formulation.
+     */
+    public void evictAfterCommit(String formulationId, LocalDate date) {
+        Key key = new Key(formulationId, date);
+        cache.synchronous().invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.synchronous().invalidate(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * Publishes the cache size, hit, miss and eviction counters under the cache name.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+
+    /**
+     * @return The hit, miss and eviction counters of the cache.
+     */
+    public CacheStatsDTO stats() {
+        CacheStats stats = cache.synchronous().stats();
+        return CacheStatsDTO.builder()
+                .name(NAME)
+                .size(cache.synchronous().estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    private CachedFormulation serialize(FeedResponseDTO formulation) {
+        try {
+            return new CachedFormulation(objectMapper.writeValueAsBytes(formulation));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
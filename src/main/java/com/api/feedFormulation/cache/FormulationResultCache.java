@@ -0,0 +1,96 @@
+package com.api.feedFormulation.cache;
+
+import com.api.feedFormulation.dto.CacheStatsDTO;
+import com.api.feedFormulation.dto.SolverMode;
+import com.api.feedFormulation.utils.FormulationResult;
+import com.api.feedFormulation.utils.IngredientTable;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of solved ingredient breakdowns.
+ * Inputs are normalized to thousandths before lookup, and the key includes the ingredient table
+ * version so a breakdown is never served for ingredient values other than those it was solved with.
+ */
+@Component
+public class FormulationResultCache implements MeterBinder {
+
+    public static final String NAME = "formulationResults";
+
+    private static final double SCALE = 1000.0;
+
+    private final Cache<Key, FormulationResult> cache;
+
+    public FormulationResultCache(@Value("${feedFormulation.cache.formulation.maxSize}") long maxSize,
+                                  @Value("${feedFormulation.cache.formulation.ttl}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Normalized cache key. Inputs that round to the same thousandths share one entry.
+     */
+    public record Key(long quantityThousandths, long targetThousandths, SolverMode solverMode, long tableVersion) {
+    }
+
+    /**
+     * Returns the cached breakdown for the normalized inputs, solving it with the loader on a miss.
+     * The cached breakdown may have been solved for another quantity within the same thousandth.
+     * Exceptions thrown by the loader propagate and nothing is cached.
+     *
+     * @param table         The ingredient table to solve against.
+     * @param quantity      The quantity of the feed.
+     * @param targetCpValue The target crude protein value of the feed.
+     * @param solverMode    The solver to use; null selects the Pearson square.
+     * @param loader        Solves the breakdown on a miss.
+     * @return The breakdown.
+     */
+    public FormulationResult get(IngredientTable table, double quantity, double targetCpValue,
+                                 SolverMode solverMode, Function<Key, FormulationResult> loader) {
+        Key key = new Key(Math.round(quantity * SCALE), Math.round(targetCpValue * SCALE),
+                solverMode == null ? SolverMode.PEARSON_SQUARE : solverMode, table.version());
+        return cache.get(key, loader);
+    }
+
+    /**
+     * Drops every cached breakdown, used when the ingredient table changes.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Publishes the cache size, hit, miss and eviction counters under the cache name.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+
+    /**
+     * @return The hit, miss and eviction counters of the cache.
+     */
+    public CacheStatsDTO stats() {
+        CacheStats stats = cache.stats();
+        return CacheStatsDTO.builder()
+                .name(NAME)
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+}
@@ -0,0 +1,11 @@
+package com.api.feedFormulation.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@Profile("!reactive")
+public class SchedulingConfig {
+}
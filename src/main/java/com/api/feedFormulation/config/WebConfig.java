@@ -3,6 +3,9 @@ package com.api.feedFormulation.config;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -10,6 +13,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebConfig {
 
     @Bean
+    @Profile("!reactive")
     public WebMvcConfigurer corsConfigurer() {
         return new WebMvcConfigurer() {
             @Override
@@ -22,4 +26,29 @@ public class WebConfig {
             }
         };
     }
+
+    @Bean
+    @Profile("reactive")
+    public WebFluxConfigurer reactiveCorsConfigurer() {
+        return new WebFluxConfigurer() {
+            @Override
+            public void addCorsMappings(@NotNull org.springframework.web.reactive.config.CorsRegistry registry) {
+                registry.addMapping("/api/**") // Same policy as the servlet stack
+                        .allowedOrigins("http://localhost:3000")
+                        .allowedMethods("GET", "POST", "PUT", "DELETE")
+                        .allowedHeaders("*")
+                        .allowCredentials(true);
+            }
+        };
+    }
+
+    /**
+     * Serves the reactive profile from Reactor Netty's event loops; without this bean Boot would
+     * pick Tomcat, which is also on the classpath for the servlet stack.
+     */
+    @Bean
+    @Profile("reactive")
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
 }
@@ -1,14 +1,52 @@
 package com.api.feedFormulation.controller;
 
+import com.api.feedFormulation.cache.CachedFormulation;
+import com.api.feedFormulation.dto.BulkFormulationResultDTO;
+import com.api.feedFormulation.dto.CacheStatsDTO;
 import com.api.feedFormulation.dto.FeedRequestDTO;
 import com.api.feedFormulation.dto.FeedResponseDTO;
+import com.api.feedFormulation.dto.FeedSummaryDTO;
+import com.api.feedFormulation.dto.FormulationSearchDTO;
+import com.api.feedFormulation.dto.ImportResultDTO;
+import com.api.feedFormulation.dto.KeysetPageDTO;
+import com.api.feedFormulation.dto.PersistenceStatusDTO;
+import com.api.feedFormulation.dto.SweepRequestDTO;
+import com.api.feedFormulation.dto.SweepResultDTO;
+import com.api.feedFormulation.exception.InvalidInputException;
 import com.api.feedFormulation.service.FeedFormulationService;
+import com.api.feedFormulation.utils.Constants;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
 
 /**
  * Controller for managing feed formulations.
@@ -17,34 +55,105 @@ import java.util.List;
  */
 @RestController
 @RequestMapping("/api/v1/feed-formulation")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class FeedFormulationController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
+
     private final FeedFormulationService feedFormulationService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Endpoint to create a new feed formulation.
+     * With async=true the formulation is returned with 202 Accepted as soon as it is calculated
+     * and saved in the background; the Location header points to its persistence status.
      *
      * @param request The FeedRequestDTO containing the details for the formulation.
+     * @param async Whether to return before the formulation is saved.
      * @return The created FeedResponseDTO with the formulation details.
      */
     @PostMapping
-    public ResponseEntity<FeedResponseDTO> createFormulation(@Valid @RequestBody FeedRequestDTO request) {
+    public ResponseEntity<FeedResponseDTO> createFormulation(@Valid @RequestBody FeedRequestDTO request,
+                                                             @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            FeedResponseDTO response = feedFormulationService.calculateFeedAsync(request);
+            URI status = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                    .path("/{formulationId}/{date}/status")
+                    .buildAndExpand(response.getFormulationId(), response.getDate())
+                    .toUri();
+            return ResponseEntity.accepted().location(status).body(response);
+        }
         FeedResponseDTO response = feedFormulationService.calculateFeed(request);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Endpoint to check whether a formulation created with async=true has been saved.
+     *
+     * @param formulationId The ID of the formulation.
+     * @param date The date of the formulation.
+     * @return The PersistenceStatusDTO of the formulation.
+     */
+    @GetMapping("/{formulationId}/{date}/status")
+    public ResponseEntity<PersistenceStatusDTO> getPersistenceStatus(@PathVariable String formulationId, @PathVariable String date) {
+        return ResponseEntity.ok(feedFormulationService.getPersistenceStatus(formulationId, date));
+    }
+
+    /**
+     * Endpoint to create many feed formulations in one call.
+     * Each item is validated and reported individually; invalid items do not fail the batch.
+     *
+     * @param requests The list of FeedRequestDTOs for the formulations to create.
+     * @return One BulkFormulationResultDTO per request, in request order.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkFormulationResultDTO>> createFormulations(@RequestBody List<FeedRequestDTO> requests) {
+        return ResponseEntity.ok(feedFormulationService.calculateFeeds(requests));
+    }
+
+    /**
+     * Endpoint to solve a what-if grid of target CP values and quantities without saving anything.
+     * Points are solved in parallel and each is written as a line of newline-delimited JSON as
+     * soon as it is solved, so the lines are not in grid order. Only the response thread writes.
+     *
+     * @param request The SweepRequestDTO describing the target CP and quantity ranges.
+     * @return A streaming body writing one SweepResultDTO per line.
+     */
+    @PostMapping(value = "/sweep", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> sweepFormulations(@Valid @RequestBody SweepRequestDTO request) {
+        Stream<SweepResultDTO> results = feedFormulationService.sweepFormulations(request);
+        // Closing the results on a failed write, such as a client that went away, stops the solving
+        StreamingResponseBody body = outputStream -> {
+            try (results) {
+                for (Iterator<SweepResultDTO> iterator = results.iterator(); iterator.hasNext(); ) {
+                    outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    outputStream.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
     /**
      * Endpoint to retrieve a feed formulation by its formulation ID and date.
+     * The body is written from pre-serialized JSON and carries an ETag, so a request
+     * with a matching If-None-Match header is answered with 304 Not Modified.
      *
      * @param formulationId The ID of the formulation.
      * @param date The date of the formulation.
-     * @return The retrieved FeedResponseDTO with the formulation details.
+     * @return The retrieved FeedResponseDTO as JSON with the formulation details.
      */
     @GetMapping("/{formulationId}/{date}")
-    public ResponseEntity<FeedResponseDTO> getFormulation(@PathVariable String formulationId, @PathVariable String date) {
-        FeedResponseDTO response = feedFormulationService.getFeedResponseByFormulationIdAndDate(formulationId, date);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> getFormulation(@PathVariable String formulationId, @PathVariable String date) {
+        CachedFormulation response = feedFormulationService.getSerializedFeedResponse(formulationId, date);
+        return ResponseEntity.ok()
+                .eTag(response.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response.getJson());
     }
     /**
      * Endpoint to retrieve all feed formulations.
@@ -57,6 +166,146 @@ public class FeedFormulationController {
         return ResponseEntity.ok(formulations);
     }
 
+    /**
+     * Endpoint to retrieve one keyset page of feed formulations.
+     *
+     * @param after The cursor returned with the previous page; omit for the first page.
+     * @param size The maximum number of formulations on the page.
+     * @return A page of FeedResponseDTOs with the cursor for the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPageDTO<FeedResponseDTO>> getFormulationsPage(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + Constants.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(feedFormulationService.getFeedFormulationsPage(after, size));
+    }
+
+    /**
+     * Endpoint to retrieve one keyset page of formulation summaries for list views.
+     * Summaries carry the formulation fields without ingredients.
+     *
+     * @param after The cursor returned with the previous page; omit for the first page.
+     * @param size The maximum number of summaries on the page.
+     * @return A page of FeedSummaryDTOs with the cursor for the next page.
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<KeysetPageDTO<FeedSummaryDTO>> getFormulationSummaries(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + Constants.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(feedFormulationService.getFeedSummariesPage(after, size));
+    }
+
+    /**
+     * Endpoint to search formulation summaries by date range, name prefix and quantity and target CP
+     * ranges, one keyset page at a time ordered by date. Every filter is optional and inclusive.
+     *
+     * @param fromDate The earliest date, in yyyy-MM-dd format.
+     * @param toDate The latest date, in yyyy-MM-dd format.
+     * @param namePrefix The start of the formulation name.
+     * @param minQuantity The smallest quantity.
+     * @param maxQuantity The largest quantity.
+     * @param minTargetCpValue The smallest target CP value.
+     * @param maxTargetCpValue The largest target CP value.
+     * @param after The cursor returned with the previous page; omit for the first page.
+     * @param size The maximum number of summaries on the page.
+     * @return A page of matching FeedSummaryDTOs with the cursor for the next page.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<KeysetPageDTO<FeedSummaryDTO>> searchFormulations(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) Double minQuantity,
+            @RequestParam(required = false) Double maxQuantity,
+            @RequestParam(required = false) Double minTargetCpValue,
+            @RequestParam(required = false) Double maxTargetCpValue,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + Constants.DEFAULT_PAGE_SIZE) int size) {
+        FormulationSearchDTO search = FormulationSearchDTO.builder()
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .namePrefix(namePrefix)
+                .minQuantity(minQuantity)
+                .maxQuantity(maxQuantity)
+                .minTargetCpValue(minTargetCpValue)
+                .maxTargetCpValue(maxTargetCpValue)
+                .build();
+        return ResponseEntity.ok(feedFormulationService.searchFeedSummaries(search, after, size));
+    }
+
+    /**
+     * Endpoint to stream all feed formulations as newline-delimited JSON.
+     * Formulations are written as they are read, so the response is never held in memory.
+     *
+     * @return A streaming body writing one FeedResponseDTO per line.
+     */
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamFormulations() {
+        StreamingResponseBody body = outputStream -> feedFormulationService.streamFeedFormulations(formulation -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(formulation));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Endpoint to export all feed formulations with their ingredients as an Excel-compatible CSV file,
+     * one line per ingredient. Lines are written as they are read from the database, so exports of
+     * any size run in constant memory. With gzip=true the file is sent gzip-compressed.
+     *
+     * @param gzip Whether to compress the file.
+     * @return A streaming body writing the CSV file as an attachment.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportFormulations(@RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, CSV_BUFFER_SIZE) : outputStream;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), CSV_BUFFER_SIZE);
+            feedFormulationService.exportFeedFormulations(writer);
+            // Flushes the buffer and, for gzip, writes the trailer; the container closes the response stream
+            writer.flush();
+            if (target instanceof GZIPOutputStream compressed) {
+                compressed.finish();
+            }
+        };
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("formulations-" + LocalDate.now() + (gzip ? ".csv.gz" : ".csv"))
+                .build();
+        return ResponseEntity.ok()
+                .contentType(gzip ? APPLICATION_GZIP : TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+
+    /**
+     * Endpoint to import formulations with their ingredients from a CSV file in the export layout,
+     * sent as the request body. The body is read as it arrives rather than buffered, so files of any
+     * size can be imported. With gzip=true the body is expected gzip-compressed.
+     *
+     * @param body The CSV file.
+     * @param gzip Whether the file is compressed.
+     * @return The ImportResultDTO with the numbers of imported and rejected formulations.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportResultDTO> importFormulations(InputStream body,
+                                                              @RequestParam(defaultValue = "false") boolean gzip) throws IOException {
+        InputStream source = body;
+        if (gzip) {
+            try {
+                source = new GZIPInputStream(body, CSV_BUFFER_SIZE);
+            } catch (ZipException e) {
+                throw new InvalidInputException("The file is not gzip-compressed.");
+            }
+        }
+        Reader reader = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8), CSV_BUFFER_SIZE);
+        return ResponseEntity.ok(feedFormulationService.importFeedFormulations(reader));
+    }
+
     /**
      * Endpoint to update an existing feed formulation.
      *
@@ -83,4 +332,14 @@ public class FeedFormulationController {
         feedFormulationService.deleteFeedResponse(formulationId, date);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Endpoint to retrieve the hit, miss and eviction counters of the in-process caches.
+     *
+     * @return A list of CacheStatsDTOs, one per cache.
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(feedFormulationService.getCacheStats());
+    }
 }
@@ -0,0 +1,46 @@
+package com.api.feedFormulation.controller;
+
+import com.api.feedFormulation.dto.CatalogIngredientDTO;
+import com.api.feedFormulation.dto.IngredientCatalogDTO;
+import com.api.feedFormulation.service.IngredientCatalogService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for reading and replacing the ingredient catalog used by the solvers.
+ */
+@RestController
+@RequestMapping("/api/v1/ingredient-catalog")
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class IngredientCatalogController {
+
+    private final IngredientCatalogService catalogService;
+
+    /**
+     * Endpoint to retrieve the active ingredient catalog.
+     *
+     * @return The IngredientCatalogDTO with its version and ingredients.
+     */
+    @GetMapping
+    public ResponseEntity<IngredientCatalogDTO> getCatalog() {
+        return ResponseEntity.ok(catalogService.getCatalog());
+    }
+
+    /**
+     * Endpoint to replace the ingredient catalog. New formulations are solved with the new values
+     * straight away on this instance and within the reload interval on the others.
+     *
+     * @param ingredients The ingredients of the new catalog in reporting order.
+     * @return The new IngredientCatalogDTO.
+     */
+    @PutMapping
+    public ResponseEntity<IngredientCatalogDTO> updateCatalog(@RequestBody List<@Valid CatalogIngredientDTO> ingredients) {
+        return ResponseEntity.ok(catalogService.updateCatalog(ingredients));
+    }
+}
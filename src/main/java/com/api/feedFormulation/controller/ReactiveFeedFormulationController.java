@@ -0,0 +1,87 @@
+package com.api.feedFormulation.controller;
+
+import com.api.feedFormulation.dto.FeedRequestDTO;
+import com.api.feedFormulation.dto.FeedResponseDTO;
+import com.api.feedFormulation.service.ReactiveFeedFormulationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux controller for managing feed formulations, active with the "reactive" profile.
+ * Serves the same paths as {@link FeedFormulationController} without blocking request threads.
+ */
+@RestController
+@RequestMapping("/api/v1/feed-formulation")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveFeedFormulationController {
+
+    private final ReactiveFeedFormulationService feedFormulationService;
+
+    /**
+     * Endpoint to create a new feed formulation.
+     *
+     * @param request The FeedRequestDTO containing the details for the formulation.
+     * @return The created FeedResponseDTO with the formulation details.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<FeedResponseDTO>> createFormulation(@Valid @RequestBody FeedRequestDTO request) {
+        return feedFormulationService.calculateFeed(request).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Endpoint to retrieve a feed formulation by its formulation ID and date.
+     *
+     * @param formulationId The ID of the formulation.
+     * @param date The date of the formulation.
+     * @return The retrieved FeedResponseDTO with the formulation details.
+     */
+    @GetMapping("/{formulationId}/{date}")
+    public Mono<ResponseEntity<FeedResponseDTO>> getFormulation(@PathVariable String formulationId, @PathVariable String date) {
+        return feedFormulationService.getFeedResponseByFormulationIdAndDate(formulationId, date).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Endpoint to retrieve all feed formulations.
+     * The formulations are written as they are read, as a JSON array or, when requested with
+     * Accept: application/x-ndjson, one per line.
+     *
+     * @return The FeedResponseDTOs.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<FeedResponseDTO> getAllFormulations() {
+        return feedFormulationService.getAllFeedFormulations();
+    }
+
+    /**
+     * Endpoint to update an existing feed formulation.
+     *
+     * @param formulationId The ID of the formulation to be updated.
+     * @param date The date of the formulation to be updated.
+     * @param request The FeedRequestDTO containing the new details for the formulation.
+     * @return The updated FeedResponseDTO with the new formulation details.
+     */
+    @PutMapping("/{formulationId}/{date}")
+    public Mono<ResponseEntity<FeedResponseDTO>> updateFormulation(@PathVariable String formulationId, @PathVariable String date, @Valid @RequestBody FeedRequestDTO request) {
+        return feedFormulationService.updateFeedResponse(formulationId, date, request).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Endpoint to delete a feed formulation.
+     *
+     * @param formulationId The ID of the formulation to be deleted.
+     * @param date The date of the formulation to be deleted.
+     * @return A response entity with no content.
+     */
+    @DeleteMapping("/{formulationId}/{date}")
+    public Mono<ResponseEntity<Void>> deleteFormulation(@PathVariable String formulationId, @PathVariable String date) {
+        return feedFormulationService.deleteFeedResponse(formulationId, date)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.api.feedFormulation.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of one item of a bulk formulation request.
+ * Results are returned in the same order as the submitted requests.
+ */
+@Data
+@Builder
+public class BulkFormulationResultDTO {
+
+    /**
+     * Outcome of a single bulk item.
+     */
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    /**
+     * Zero-based position of the item in the submitted list.
+     */
+    private int index;
+
+    /**
+     * The formulation name of the submitted item.
+     */
+    private String formulationName;
+
+    /**
+     * Whether the formulation was created or rejected.
+     */
+    private Status status;
+
+    /**
+     * Reason the item was rejected; null for created items.
+     */
+    private String message;
+
+    /**
+     * The created formulation; null for rejected items.
+     */
+    private FeedResponseDTO formulation;
+}
@@ -0,0 +1,42 @@
+package com.api.feedFormulation.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) for the statistics of an in-process cache.
+ */
+@Data
+@Builder
+public class CacheStatsDTO {
+
+    /**
+     * Name of the cache.
+     */
+    private String name;
+
+    /**
+     * Approximate number of entries currently held.
+     */
+    private long size;
+
+    /**
+     * Number of lookups that found an entry.
+     */
+    private long hitCount;
+
+    /**
+     * Number of lookups that had to compute or load the entry.
+     */
+    private long missCount;
+
+    /**
+     * Ratio of hits to lookups, or 1.0 when there were no lookups.
+     */
+    private double hitRate;
+
+    /**
+     * Number of entries evicted for size or expiry.
+     */
+    private long evictionCount;
+}
@@ -0,0 +1,67 @@
+package com.api.feedFormulation.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) for one ingredient of the ingredient catalog.
+ */
+@Data
+@Builder
+public class CatalogIngredientDTO {
+
+    /**
+     * Name of the ingredient; unique within the catalog.
+     */
+    @NotBlank(message = "Ingredient name is required.")
+    private String name;
+
+    /**
+     * Category of the ingredient: Proteins, Carbohydrates, Minerals, Vitamins or Others.
+     * Proteins and carbohydrates are balanced against each other by the Pearson square.
+     */
+    @NotBlank(message = "Ingredient category is required.")
+    private String category;
+
+    /**
+     * Crude protein content of the ingredient in percent.
+     */
+    @DecimalMin(value = "0", message = "Crude protein cannot be negative.")
+    @DecimalMax(value = "100", message = "Crude protein cannot exceed 100%.")
+    private double crudeProtein;
+
+    /**
+     * Share of the ingredient within its Pearson square group, or of the whole feed for fixed ingredients.
+     */
+    @DecimalMin(value = "0", message = "Ratio cannot be negative.")
+    private double ratio;
+
+    /**
+     * Cost per kilogram of the ingredient.
+     */
+    @DecimalMin(value = "0", message = "Cost cannot be negative.")
+    private double cost;
+
+    /**
+     * Metabolizable energy of the ingredient in kcal/kg.
+     */
+    @DecimalMin(value = "0", message = "Energy cannot be negative.")
+    private double energy;
+
+    /**
+     * Calcium content of the ingredient in percent.
+     */
+    @DecimalMin(value = "0", message = "Calcium cannot be negative.")
+    @DecimalMax(value = "100", message = "Calcium cannot exceed 100%.")
+    private double calcium;
+
+    /**
+     * Maximum share of the ingredient in a least-cost ration, between 0 and 1.
+     */
+    @DecimalMin(value = "0", message = "Maximum inclusion cannot be negative.")
+    @DecimalMax(value = "1", message = "Maximum inclusion cannot exceed 1.")
+    private double maxInclusion;
+}
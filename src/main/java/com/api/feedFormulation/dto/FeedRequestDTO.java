@@ -38,4 +38,10 @@ public class FeedRequestDTO {
     @Min(value = 1, message = "Target CP value must be greater than zero.")
     private double targetCpValue;
 
+    /**
+     * The solver used to compute the ingredient proportions.
+     * Defaults to the Pearson square when not provided.
+     */
+    private SolverMode solverMode;
+
 }
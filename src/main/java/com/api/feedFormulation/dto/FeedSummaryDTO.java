@@ -0,0 +1,50 @@
+package com.api.feedFormulation.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object (DTO) for the list view of feed formulations.
+ * Holds only the formulation columns, without ingredients. It is built directly by a constructor
+ * projection query, so listing summaries creates no entities.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class FeedSummaryDTO {
+
+    /**
+     * Internal id of the formulation, used only to build the page cursor.
+     */
+    @JsonIgnore
+    private Long id;
+
+    /**
+     * Unique identifier for the feed formulation.
+     */
+    private String formulationId;
+
+    /**
+     * Unique name of the feed formulation.
+     */
+    private String formulationName;
+
+    /**
+     * The date when the feed formulation was created or last updated.
+     */
+    private LocalDate date;
+
+    /**
+     * The total quantity of the feed in kilograms.
+     */
+    private double quantity;
+
+    /**
+     * The target crude protein (CP) value of the feed.
+     */
+    private double targetCpValue;
+}
@@ -0,0 +1,50 @@
+package com.api.feedFormulation.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object (DTO) for the filters of a formulation search.
+ * Every filter is optional and bounds are inclusive; a search without filters lists all formulations.
+ */
+@Data
+@Builder
+public class FormulationSearchDTO {
+
+    /**
+     * The earliest formulation date.
+     */
+    private LocalDate fromDate;
+
+    /**
+     * The latest formulation date.
+     */
+    private LocalDate toDate;
+
+    /**
+     * The start of the formulation name, matched case-sensitively as on the name index.
+     */
+    private String namePrefix;
+
+    /**
+     * The smallest quantity in kilograms.
+     */
+    private Double minQuantity;
+
+    /**
+     * The largest quantity in kilograms.
+     */
+    private Double maxQuantity;
+
+    /**
+     * The smallest target crude protein value.
+     */
+    private Double minTargetCpValue;
+
+    /**
+     * The largest target crude protein value.
+     */
+    private Double maxTargetCpValue;
+}
@@ -0,0 +1,27 @@
+package com.api.feedFormulation.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) for a formulation of an imported CSV file that was not saved.
+ */
+@Data
+@Builder
+public class ImportRejectionDTO {
+
+    /**
+     * Line number of the first line of the formulation; the header is line 1.
+     */
+    private long line;
+
+    /**
+     * The formulation name given in the file.
+     */
+    private String formulationName;
+
+    /**
+     * Reason the formulation was rejected.
+     */
+    private String message;
+}
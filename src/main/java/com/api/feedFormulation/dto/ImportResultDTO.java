@@ -0,0 +1,36 @@
+package com.api.feedFormulation.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of a CSV import.
+ * Only the first rejections are listed so that the report stays small for any file size;
+ * the counters cover the whole file.
+ */
+@Data
+@Builder
+public class ImportResultDTO {
+
+    /**
+     * Number of lines read, including the header.
+     */
+    private long lines;
+
+    /**
+     * Number of formulations saved.
+     */
+    private long imported;
+
+    /**
+     * Number of formulations rejected.
+     */
+    private long rejected;
+
+    /**
+     * The first rejected formulations, in file order.
+     */
+    private List<ImportRejectionDTO> rejections;
+}
@@ -0,0 +1,24 @@
+package com.api.feedFormulation.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the active ingredient catalog.
+ */
+@Data
+@Builder
+public class IngredientCatalogDTO {
+
+    /**
+     * Content fingerprint of the catalog; formulations with packed quantities refer to it.
+     */
+    private long version;
+
+    /**
+     * The ingredients in the order in which formulations report them.
+     */
+    private List<CatalogIngredientDTO> ingredients;
+}
@@ -0,0 +1,29 @@
+package com.api.feedFormulation.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for a single page of a keyset-paginated listing.
+ * The client passes {@code nextCursor} back as the {@code after} parameter
+ * to fetch the following page; a null cursor means the listing is exhausted.
+ *
+ * @param <T> The type of the items on the page.
+ */
+@Data
+@Builder
+public class KeysetPageDTO<T> {
+
+    /**
+     * Items on this page, in ascending key order.
+     */
+    private List<T> items;
+
+    /**
+     * Opaque cursor pointing after the last item of this page.
+     * Null when there are no further pages.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,42 @@
+package com.api.feedFormulation.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) for the durability of a formulation accepted for asynchronous saving.
+ */
+@Data
+@Builder
+public class PersistenceStatusDTO {
+
+    /**
+     * Durability of a formulation.
+     */
+    public enum Status {
+        PENDING,
+        PERSISTED,
+        FAILED,
+        NOT_FOUND
+    }
+
+    /**
+     * Unique identifier of the formulation.
+     */
+    private String formulationId;
+
+    /**
+     * The date of the formulation.
+     */
+    private String date;
+
+    /**
+     * Whether the formulation is waiting in the write queue, saved, failed or unknown.
+     */
+    private Status status;
+
+    /**
+     * Reason the formulation could not be saved; null unless failed.
+     */
+    private String message;
+}
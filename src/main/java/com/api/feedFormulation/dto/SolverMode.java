@@ -0,0 +1,17 @@
+package com.api.feedFormulation.dto;
+
+/**
+ * Method used to compute the ingredient proportions of a feed formulation.
+ */
+public enum SolverMode {
+
+    /**
+     * Grouped Pearson square on the configured ingredient ratios; hits the target CP exactly.
+     */
+    PEARSON_SQUARE,
+
+    /**
+     * Linear programme minimizing ingredient cost while meeting the target CP and the energy and calcium minimums.
+     */
+    LEAST_COST
+}
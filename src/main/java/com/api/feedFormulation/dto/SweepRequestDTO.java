@@ -0,0 +1,59 @@
+package com.api.feedFormulation.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) for a what-if sweep over target CP values and quantities.
+ * Every combination of the two ranges is solved; nothing is saved.
+ */
+@Data
+@Builder
+public class SweepRequestDTO {
+
+    /**
+     * Lowest target crude protein value of the sweep.
+     */
+    @Min(value = 1, message = "Target CP value must be greater than zero.")
+    private double minTargetCpValue;
+
+    /**
+     * Highest target crude protein value of the sweep (inclusive).
+     */
+    @Min(value = 1, message = "Target CP value must be greater than zero.")
+    private double maxTargetCpValue;
+
+    /**
+     * Increment between target crude protein values.
+     */
+    @DecimalMin(value = "0.001", message = "Target CP step must be at least 0.001.")
+    private double targetCpStep;
+
+    /**
+     * Lowest quantity of the sweep in kilograms.
+     */
+    @Min(value = 1, message = "Quantity must be greater than zero.")
+    @Max(value = 1000, message = "Quantity cannot exceed 1000 kg.")
+    private double minQuantity;
+
+    /**
+     * Highest quantity of the sweep in kilograms (inclusive).
+     */
+    @Min(value = 1, message = "Quantity must be greater than zero.")
+    @Max(value = 1000, message = "Quantity cannot exceed 1000 kg.")
+    private double maxQuantity;
+
+    /**
+     * Increment between quantities in kilograms.
+     */
+    @DecimalMin(value = "0.001", message = "Quantity step must be at least 0.001.")
+    private double quantityStep;
+
+    /**
+     * The solver used for every point. Defaults to the Pearson square when not provided.
+     */
+    private SolverMode solverMode;
+}
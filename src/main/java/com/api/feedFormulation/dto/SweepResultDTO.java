@@ -0,0 +1,39 @@
+package com.api.feedFormulation.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one point of a what-if sweep.
+ */
+@Data
+@Builder
+public class SweepResultDTO {
+
+    /**
+     * The quantity of feed in kilograms at this point.
+     */
+    private double quantity;
+
+    /**
+     * The target crude protein value at this point.
+     */
+    private double targetCpValue;
+
+    /**
+     * Whether the target can be reached with the available ingredients.
+     */
+    private boolean feasible;
+
+    /**
+     * Reason the point is infeasible; null for feasible points.
+     */
+    private String message;
+
+    /**
+     * The ingredient breakdown; null for infeasible points.
+     */
+    private List<IngredientDTO> ingredients;
+}
@@ -0,0 +1,191 @@
+package com.api.feedFormulation.metrics;
+
+import com.api.feedFormulation.dto.SolverMode;
+import com.api.feedFormulation.utils.Constants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for the stages of a feed formulation request.
+ * Repository calls are timed by Spring Data as {@code spring.data.repository.invocations}
+ * and HTTP requests as {@code http.server.requests}; this class covers what happens in between.
+ */
+@Component
+public class FeedFormulationMetrics {
+
+    public static final String STAGE_TIMER = "feed.formulation.stage";
+    public static final String SOLVER_TIMER = "feed.formulation.solver";
+    public static final String TRANSACTION_TIMER = "feed.formulation.transaction";
+    public static final String BULK_SIZE = "feed.formulation.bulk.size";
+    public static final String BULK_REJECTED = "feed.formulation.bulk.rejected";
+    public static final String WRITE_BEHIND_QUEUE = "feed.formulation.writebehind.queue";
+    public static final String WRITE_BEHIND_BATCH = "feed.formulation.writebehind.batch";
+    public static final String WRITE_BEHIND_FAILED = "feed.formulation.writebehind.failed";
+
+    /**
+     * Stages of a request, used as the {@code stage} tag of {@link #STAGE_TIMER}.
+     */
+    public enum Stage {
+        VALIDATE("validate"),
+        SOLVE("solve"),
+        INGREDIENTS("ingredients"),
+        MAP("map");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<SolverMode, Timer> solverTimers = new EnumMap<>(SolverMode.class);
+    private final DistributionSummary bulkSize;
+    private final Counter rejected;
+    private final DistributionSummary writeBehindBatch;
+    private final Counter writeBehindFailed;
+
+    public FeedFormulationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder(STAGE_TIMER)
+                    .description("Time spent in one stage of a feed formulation request")
+                    .tag("stage", stage.tag)
+                    .register(registry));
+        }
+        for (SolverMode solverMode : SolverMode.values()) {
+            solverTimers.put(solverMode, Timer.builder(SOLVER_TIMER)
+                    .description("Time spent solving an ingredient breakdown")
+                    .tag("solver", solverMode.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        this.bulkSize = DistributionSummary.builder(BULK_SIZE)
+                .description("Number of formulations per bulk request")
+                .maximumExpectedValue((double) Constants.MAX_BULK_SIZE)
+                .register(registry);
+        this.rejected = Counter.builder(BULK_REJECTED)
+                .description("Formulations rejected within bulk requests")
+                .register(registry);
+        this.writeBehindBatch = DistributionSummary.builder(WRITE_BEHIND_BATCH)
+                .description("Number of formulations saved per write-behind batch")
+                .maximumExpectedValue((double) Constants.MAX_BULK_SIZE)
+                .register(registry);
+        this.writeBehindFailed = Counter.builder(WRITE_BEHIND_FAILED)
+                .description("Formulations accepted for asynchronous saving that could not be saved")
+                .register(registry);
+    }
+
+    /**
+     * Times a stage that produces a value.
+     *
+     * @param stage The stage being timed.
+     * @param work  The work of the stage.
+     * @return The value produced by the work.
+     */
+    public <T> T record(Stage stage, Supplier<T> work) {
+        return stageTimers.get(stage).record(work);
+    }
+
+    /**
+     * Times a stage that produces no value.
+     *
+     * @param stage The stage being timed.
+     * @param work  The work of the stage.
+     */
+    public void record(Stage stage, Runnable work) {
+        stageTimers.get(stage).record(work);
+    }
+
+    /**
+     * Times one run of a solver, excluding cached results.
+     *
+     * @param solverMode The solver; null stands for the Pearson square, as in the requests.
+     * @param work       The solver run.
+     * @return The value produced by the solver run.
+     */
+    public <T> T recordSolver(SolverMode solverMode, Supplier<T> work) {
+        return solverTimers.get(solverMode == null ? SolverMode.PEARSON_SQUARE : solverMode).record(work);
+    }
+
+    /**
+     * Starts timing the current transaction; the time is recorded once it completes, tagged with
+     * the operation and whether it committed. Does nothing outside a transaction.
+     *
+     * @param operation The operation the transaction belongs to, used as the {@code operation} tag.
+     */
+    public void recordTransaction(String operation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(registry);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                sample.stop(Timer.builder(TRANSACTION_TIMER)
+                        .description("Time from the start of a transactional operation until commit or rollback")
+                        .tag("operation", operation)
+                        .tag("outcome", status == STATUS_COMMITTED ? "committed"
+                                : status == STATUS_ROLLED_BACK ? "rolled_back" : "unknown")
+                        .register(registry));
+            }
+        });
+    }
+
+    /**
+     * Records the size of a bulk request.
+     *
+     * @param size The number of formulations in the request.
+     */
+    public void recordBulkSize(int size) {
+        bulkSize.record(size);
+    }
+
+    /**
+     * Counts formulations rejected within a bulk request.
+     *
+     * @param count The number of rejected formulations.
+     */
+    public void recordBulkRejected(long count) {
+        rejected.increment(count);
+    }
+
+    /**
+     * Publishes the number of formulations waiting in the write-behind queue.
+     *
+     * @param queue The write-behind queue.
+     */
+    public void monitorWriteBehindQueue(Collection<?> queue) {
+        Gauge.builder(WRITE_BEHIND_QUEUE, queue, Collection::size)
+                .description("Formulations waiting in the write-behind queue")
+                .register(registry);
+    }
+
+    /**
+     * Records the size of a write-behind batch.
+     *
+     * @param size The number of formulations in the batch.
+     */
+    public void recordWriteBehindBatch(int size) {
+        writeBehindBatch.record(size);
+    }
+
+    /**
+     * Counts a formulation that the write-behind queue could not save.
+     */
+    public void recordWriteBehindFailed() {
+        writeBehindFailed.increment();
+    }
+}
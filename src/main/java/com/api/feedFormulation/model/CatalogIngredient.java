@@ -0,0 +1,57 @@
+package com.api.feedFormulation.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Entity class representing one ingredient of a stored ingredient table.
+ * Every distinct table is stored once under its content fingerprint, so packed formulations
+ * only need the fingerprint and their quantities to be read back.
+ */
+@Data
+@Entity
+@Table(name = "ingredient_catalog",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ingredient_catalog_version_position",
+                columnNames = {"catalog_version", "ingredient_position"}))
+@Builder
+@AllArgsConstructor
+public class CatalogIngredient {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredient_catalog_seq")
+    @SequenceGenerator(name = "ingredient_catalog_seq", sequenceName = "ingredient_catalog_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Fingerprint of the ingredient table this ingredient belongs to.
+     */
+    @Column(name = "catalog_version", nullable = false)
+    private long catalogVersion;
+
+    /**
+     * Row of the ingredient in the table, which is also its index in packed quantities.
+     */
+    @Column(name = "ingredient_position", nullable = false)
+    private int position;
+
+    private String name;
+
+    private String category;
+
+    private double crudeProtein;
+
+    private double ratio;
+
+    private double cost;
+
+    private double energy;
+
+    private double calcium;
+
+    private double maxInclusion;
+
+    //default constructor
+    public CatalogIngredient() {}
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,58 +15,110 @@ import java.util.List;
  * Entity class representing a feed formulation response.
  * This class is used to store details about a specific feed formulation,
  * including its ID, formulation details, and associated ingredients.
+ * Updates write only the changed columns.
  */
 @Data
 @Entity
+@DynamicUpdate
+@Table(name = "feed_response",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_feed_response_formulation_id", columnNames = "formulation_id"),
+                @UniqueConstraint(name = FeedResponse.FORMULATION_NAME_CONSTRAINT, columnNames = "formulation_name")},
+        indexes = {
+                @Index(name = "idx_feed_response_date_id", columnList = "date, id"),
+                @Index(name = "idx_feed_response_target_cp_quantity", columnList = "target_cp_value, quantity")})
 @Builder
 @AllArgsConstructor
 public class FeedResponse {
 
+    /**
+     * Name of the unique constraint on formulation_name; creates rely on it instead of checking the name first.
+     */
+    public static final String FORMULATION_NAME_CONSTRAINT = "uk_feed_response_formulation_name";
+
+    /**
+     * Column length of formulation_id; generated IDs are 13 characters.
+     */
+    public static final int FORMULATION_ID_LENGTH = 16;
+
     /**
      * Unique identifier for the feed response.
-     * This field is auto-generated by the database.
+     * Allocated from a pooled sequence (a table on MySQL) in blocks of 50,
+     * so inserts need no generated-key round trip and can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "feed_response_seq")
+    @SequenceGenerator(name = "feed_response_seq", sequenceName = "feed_response_seq", allocationSize = 50)
     private Long id;
 
     /**
      * Unique formulation identifier for the feed response.
-     * Used to identify and retrieve a specific formulation.
+     * Used to identify and retrieve a specific formulation; unique and indexed.
      */
+    @Column(name = "formulation_id", length = FORMULATION_ID_LENGTH)
     private String formulationId;
 
     /**
-     * Unique formulation identifier for the feed response.
-     * Used to identify and retrieve a specific formulation.
+     * Unique formulation name for the feed response.
+     * Used to identify and retrieve a specific formulation; unique and indexed.
      */
+    @Column(name = "formulation_name")
     private String formulationName;
 
     /**
      * Date of the feed formulation.
-     * Represents the date when the formulation was created or last updated.
+     * Represents the date when the formulation was created or last updated. Stored as a DATE
+     * and indexed together with the id, so date ranges are read in keyset order from the index.
      */
-    private String date;
+    @Column(name = "date")
+    private LocalDate date;
 
     /**
      * Quantity of the feed formulation.
      * Represents the total amount of feed in kilograms.
      */
+    @Column(name = "quantity")
     private double quantity;
 
     /**
      * Target Crude Protein (CP) value of the feed formulation.
-     * Represents the desired percentage of protein in the feed.
+     * Represents the desired percentage of protein in the feed; indexed together with the
+     * quantity for range searches on both.
      */
+    @Column(name = "target_cp_value")
     private double targetCpValue;
 
     /**
      * List of ingredients used in the feed formulation.
-     * This is a one-to-many relationship with the Ingredient entity.
+     * This is a one-to-many relationship with the Ingredient entity;
+     * ingredients removed from the list are deleted.
      */
-    @OneToMany(mappedBy = "feedResponse", cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "feedResponse", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Ingredient> ingredients = new ArrayList<>();
 
+    /**
+     * Version of the ingredient catalog table the packed quantities refer to.
+     * Null when the ingredients are stored as rows.
+     */
+    @Column(name = "catalog_version")
+    private Long catalogVersion;
+
+    /**
+     * Quantity of each catalog ingredient in kilograms, packed in catalog order.
+     * Null when the ingredients are stored as rows.
+     */
+    @Column(name = "packed_quantities", length = 1024)
+    private byte[] packedQuantities;
+
+    /**
+     * Optimistic lock version, incremented by every update. An update or delete of a formulation
+     * changed by another transaction since it was read fails instead of overwriting the change.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     // default constructor
     public FeedResponse() {}
 }
@@ -9,6 +9,9 @@ import lombok.Data;
  * Entity class representing an ingredient in a feed formulation.
  * This class is used to store details about a specific ingredient,
  * including its name, crude protein content, and quantity.
+ * Updates keep the static all-column statement rather than dynamic updates,
+ * because Hibernate only batches the static form: re-solving a formulation
+ * writes the rows that moved in one JDBC batch.
  */
 @Data
 @Entity
@@ -18,10 +21,12 @@ public class Ingredient {
 
     /**
      * Unique identifier for the ingredient.
-     * This field is auto-generated by the database.
+     * Allocated from a pooled sequence (a table on MySQL) in blocks of 150,
+     * so inserts need no generated-key round trip and can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredient_seq")
+    @SequenceGenerator(name = "ingredient_seq", sequenceName = "ingredient_seq", allocationSize = 150)
     private Long id;
 
     /**
@@ -0,0 +1,43 @@
+package com.api.feedFormulation.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Entity class holding the version of the ingredient catalog that formulations are solved with.
+ * The table has a single row, so every instance sharing the database agrees on the active catalog.
+ */
+@Data
+@Entity
+@Table(name = "ingredient_catalog_head")
+@Builder
+@AllArgsConstructor
+public class IngredientCatalogHead {
+
+    /**
+     * Id of the only row.
+     */
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    /**
+     * Version of the active ingredient table in the ingredient_catalog table.
+     */
+    @Column(name = "catalog_version", nullable = false)
+    private long catalogVersion;
+
+    /**
+     * When the version was activated.
+     */
+    @Column(name = "activated_at", nullable = false)
+    private Instant activatedAt;
+
+    //default constructor
+    public IngredientCatalogHead() {}
+}
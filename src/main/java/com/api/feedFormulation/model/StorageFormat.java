@@ -0,0 +1,18 @@
+package com.api.feedFormulation.model;
+
+/**
+ * How the ingredient breakdown of a new formulation is stored.
+ */
+public enum StorageFormat {
+
+    /**
+     * One ingredient row per ingredient, repeating its name and crude protein value.
+     */
+    ROWS,
+
+    /**
+     * Quantities packed into a single column of the formulation, with names and crude protein
+     * values read from the ingredient catalog.
+     */
+    PACKED
+}
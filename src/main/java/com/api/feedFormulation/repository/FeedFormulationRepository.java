@@ -1,15 +1,73 @@
 package com.api.feedFormulation.repository;
 
+import com.api.feedFormulation.dto.FeedSummaryDTO;
 import com.api.feedFormulation.model.FeedResponse;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface FeedFormulationRepository extends JpaRepository<FeedResponse, Long> {
+public interface FeedFormulationRepository extends JpaRepository<FeedResponse, Long>, FeedFormulationSearchRepository {
 
-    Optional<FeedResponse> findByFormulationIdAndDate(String formulationId, String date);
+    Optional<FeedResponse> findByFormulationIdAndDate(String formulationId, LocalDate date);
+
+    /**
+     * Single lookup that loads the formulation together with its ingredients in one join query.
+     */
+    @EntityGraph(attributePaths = "ingredients")
+    Optional<FeedResponse> findWithIngredientsByFormulationIdAndDate(String formulationId, LocalDate date);
+
+    /**
+     * All formulations with their ingredients fetched in the same query.
+     */
+    @EntityGraph(attributePaths = "ingredients")
+    @Query("select f from FeedResponse f order by f.id")
+    List<FeedResponse> findAllWithIngredients();
 
     boolean existsByFormulationName(String formulationName);
+
+    boolean existsByFormulationIdAndDate(String formulationId, LocalDate date);
+
+    /**
+     * Set variant of {@link #existsByFormulationName}: which of the given names are already taken.
+     */
+    @Query("select f.formulationName from FeedResponse f where f.formulationName in :names")
+    Set<String> findExistingFormulationNames(@Param("names") Collection<String> names);
+
+    /**
+     * Which of the given formulation IDs are already taken.
+     */
+    @Query("select f.formulationId from FeedResponse f where f.formulationId in :ids")
+    Set<String> findExistingFormulationIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * First phase of a paged fetch: the ids of the keyset page starting after the given id.
+     * Served by a primary key range scan, so the cost does not grow with the page offset,
+     * and limiting ids rather than joined rows keeps the page size exact.
+     */
+    @Query("select f.id from FeedResponse f where f.id > :id order by f.id")
+    List<Long> findIdsAfter(@Param("id") Long id, Limit limit);
+
+    /**
+     * Keyset page of formulation summaries after the given id. The constructor projection selects
+     * only the formulation columns and creates no entities, so ingredients are never read.
+     */
+    @Query("select new com.api.feedFormulation.dto.FeedSummaryDTO(f.id, f.formulationId, f.formulationName, "
+            + "f.date, f.quantity, f.targetCpValue) from FeedResponse f where f.id > :id order by f.id")
+    List<FeedSummaryDTO> findSummariesAfter(@Param("id") Long id, Limit limit);
+
+    /**
+     * Second phase of a paged fetch: the formulations for the given ids with their ingredients.
+     */
+    @Query("select distinct f from FeedResponse f left join fetch f.ingredients where f.id in :ids order by f.id")
+    List<FeedResponse> findAllWithIngredientsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,32 @@
+package com.api.feedFormulation.repository;
+
+import com.api.feedFormulation.dto.FeedSummaryDTO;
+import com.api.feedFormulation.dto.FormulationSearchDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Search over formulations with a query built from the filters that are set, so that every
+ * predicate sent to the database can use an index.
+ */
+public interface FeedFormulationSearchRepository {
+
+    /**
+     * Keyset page of summaries of the formulations matching the filters, ordered by date and id.
+     * When the (date, id) index is used, it is read in order from the cursor and the scan stops
+     * after limit matches, so no sort is needed; this is the plan with a date range or without
+     * selective filters. With only target CP, quantity or name filters, the database may instead
+     * range-scan the (target_cp_value, quantity) or formulation name index. All matches after the
+     * cursor are then sorted by date and id before the limit applies, so a page costs in proportion
+     * to the number of matches rather than the page size. Add a date range to searches that match
+     * many rows.
+     *
+     * @param search    The filters.
+     * @param afterDate The date of the last summary on the previous page, or null for the first page.
+     * @param afterId   The id of the last summary on the previous page, or null for the first page.
+     * @param limit     The maximum number of summaries.
+     * @return The matching summaries.
+     */
+    List<FeedSummaryDTO> searchSummaries(FormulationSearchDTO search, LocalDate afterDate, Long afterId, int limit);
+}
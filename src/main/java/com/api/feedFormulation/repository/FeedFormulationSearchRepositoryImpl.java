@@ -0,0 +1,83 @@
+package com.api.feedFormulation.repository;
+
+import com.api.feedFormulation.dto.FeedSummaryDTO;
+import com.api.feedFormulation.dto.FormulationSearchDTO;
+import com.api.feedFormulation.model.FeedResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+class FeedFormulationSearchRepositoryImpl implements FeedFormulationSearchRepository {
+
+    // Not a backslash, which MySQL also treats as an escape inside the string literal
+    private static final char LIKE_ESCAPE = '!';
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<FeedSummaryDTO> searchSummaries(FormulationSearchDTO search, LocalDate afterDate, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FeedSummaryDTO> query = cb.createQuery(FeedSummaryDTO.class);
+        Root<FeedResponse> f = query.from(FeedResponse.class);
+        Path<Long> id = f.get("id");
+        Path<LocalDate> date = f.get("date");
+        Path<String> formulationName = f.get("formulationName");
+        Path<Double> quantity = f.get("quantity");
+        Path<Double> targetCpValue = f.get("targetCpValue");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (search.getFromDate() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, search.getFromDate()));
+        }
+        if (search.getToDate() != null) {
+            predicates.add(cb.lessThanOrEqualTo(date, search.getToDate()));
+        }
+        if (search.getNamePrefix() != null) {
+            predicates.add(cb.like(formulationName, escapeLike(search.getNamePrefix()) + "%", LIKE_ESCAPE));
+        }
+        if (search.getMinQuantity() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(quantity, search.getMinQuantity()));
+        }
+        if (search.getMaxQuantity() != null) {
+            predicates.add(cb.lessThanOrEqualTo(quantity, search.getMaxQuantity()));
+        }
+        if (search.getMinTargetCpValue() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(targetCpValue, search.getMinTargetCpValue()));
+        }
+        if (search.getMaxTargetCpValue() != null) {
+            predicates.add(cb.lessThanOrEqualTo(targetCpValue, search.getMaxTargetCpValue()));
+        }
+        if (afterDate != null) {
+            // (date, id) > (afterDate, afterId), written out because JPA has no row value comparison
+            predicates.add(cb.or(cb.greaterThan(date, afterDate),
+                    cb.and(cb.equal(date, afterDate), cb.greaterThan(id, afterId))));
+        }
+
+        query.select(cb.construct(FeedSummaryDTO.class, id, f.get("formulationId"), formulationName, date,
+                        quantity, targetCpValue))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(date), cb.asc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,9 @@
+package com.api.feedFormulation.repository;
+
+import com.api.feedFormulation.model.IngredientCatalogHead;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IngredientCatalogHeadRepository extends JpaRepository<IngredientCatalogHead, Long> {
+}
@@ -0,0 +1,15 @@
+package com.api.feedFormulation.repository;
+
+import com.api.feedFormulation.model.CatalogIngredient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface IngredientCatalogRepository extends JpaRepository<CatalogIngredient, Long> {
+
+    List<CatalogIngredient> findByCatalogVersionOrderByPosition(long catalogVersion);
+
+    boolean existsByCatalogVersion(long catalogVersion);
+}
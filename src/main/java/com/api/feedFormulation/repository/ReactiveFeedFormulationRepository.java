@@ -0,0 +1,433 @@
+package com.api.feedFormulation.repository;
+
+import com.api.feedFormulation.model.FeedResponse;
+import com.api.feedFormulation.model.Ingredient;
+import com.api.feedFormulation.utils.IngredientChanges;
+import com.api.feedFormulation.utils.PackedQuantities;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking access to the feed_response and ingredient tables over R2DBC.
+ * Works on the schema created by the JPA entities, so both variants can share a database.
+ * Formulations saved with packed quantities by the JPA variant are expanded into ingredient rows
+ * on read; formulations inserted here are always stored as rows.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveFeedFormulationRepository {
+
+    private static final int SEQUENCE_RETRIES = 10;
+    private static final Duration SEQUENCE_BACKOFF = Duration.ofMillis(5);
+
+    private static final String SELECT_WITH_INGREDIENTS =
+            "select f.id, f.formulation_id, f.formulation_name, f.date, f.quantity, f.target_cp_value, f.version, "
+                    + "f.catalog_version, f.packed_quantities, i.id as ingredient_id, i.name, i.crude_protein, i.quantity as ingredient_quantity "
+                    + "from feed_response f left join ingredient i on i.feed_response_id = f.id ";
+
+    private final DatabaseClient databaseClient;
+    private final ConnectionFactory connectionFactory;
+    private final PooledSequence feedResponseSequence;
+    private final PooledSequence ingredientSequence;
+    private final Map<Long, List<CatalogEntry>> catalog = new ConcurrentHashMap<>();
+
+    public ReactiveFeedFormulationRepository(DatabaseClient databaseClient, ConnectionFactory connectionFactory) {
+        this.databaseClient = databaseClient;
+        this.connectionFactory = connectionFactory;
+        boolean tableSequences = !connectionFactory.getMetadata().getName().contains("H2");
+        this.feedResponseSequence = new PooledSequence("feed_response_seq", 50, tableSequences);
+        this.ingredientSequence = new PooledSequence("ingredient_seq", 150, tableSequences);
+    }
+
+    /**
+     * Inserts a formulation and its ingredients, assigning their ids.
+     * Must run inside a transaction so the two inserts commit together.
+     *
+     * @param response The formulation with its ingredients.
+     * @return The formulation with ids assigned.
+     */
+    public Mono<FeedResponse> insert(FeedResponse response) {
+        List<Ingredient> ingredients = response.getIngredients();
+        return feedResponseSequence.nextValue()
+                .flatMap(id -> {
+                    response.setId(id);
+                    return databaseClient.sql("insert into feed_response "
+                                    + "(id, formulation_id, formulation_name, date, quantity, target_cp_value, version) "
+                                    + "values (:id, :formulationId, :formulationName, :date, :quantity, :targetCpValue, 0)")
+                            .bind("id", id)
+                            .bind("formulationId", response.getFormulationId())
+                            .bind("formulationName", response.getFormulationName())
+                            .bind("date", response.getDate())
+                            .bind("quantity", response.getQuantity())
+                            .bind("targetCpValue", response.getTargetCpValue())
+                            .fetch()
+                            .rowsUpdated();
+                })
+                .then(Mono.defer(() -> insertIngredients(response.getId(), ingredients)))
+                .thenReturn(response);
+    }
+
+    /**
+     * Assigns ids to new ingredients and inserts them.
+     */
+    private Mono<Long> insertIngredients(long feedResponseId, List<Ingredient> ingredients) {
+        return Flux.fromIterable(ingredients)
+                .concatMap(ingredient -> ingredientSequence.nextValue().doOnNext(ingredient::setId))
+                .then(Mono.defer(() -> insertIngredientRows(feedResponseId, ingredients)));
+    }
+
+    private Mono<Long> insertIngredientRows(long feedResponseId, List<Ingredient> ingredients) {
+        if (ingredients.isEmpty()) {
+            return Mono.just(0L);
+        }
+        // One multi-row insert instead of a round trip per ingredient
+        StringBuilder sql = new StringBuilder("insert into ingredient (id, name, crude_protein, quantity, feed_response_id) values ");
+        for (int i = 0; i < ingredients.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:id").append(i).append(", :name").append(i).append(", :crudeProtein").append(i)
+                    .append(", :quantity").append(i).append(", :feedResponseId)");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("feedResponseId", feedResponseId);
+        for (int i = 0; i < ingredients.size(); i++) {
+            Ingredient ingredient = ingredients.get(i);
+            spec = spec.bind("id" + i, ingredient.getId())
+                    .bind("name" + i, ingredient.getName())
+                    .bind("crudeProtein" + i, ingredient.getCrudeProtein())
+                    .bind("quantity" + i, ingredient.getQuantity());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    /**
+     * Finds a formulation with its ingredients in one query.
+     *
+     * @param formulationId The ID of the formulation.
+     * @param date          The date of the formulation.
+     * @return The formulation, or empty if none matches.
+     */
+    public Mono<FeedResponse> findWithIngredientsByFormulationIdAndDate(String formulationId, LocalDate date) {
+        return assemble(databaseClient.sql(SELECT_WITH_INGREDIENTS
+                        + "where f.formulation_id = :formulationId and f.date = :date order by i.id")
+                .bind("formulationId", formulationId)
+                .bind("date", date)
+                .map(FormulationRow::of)
+                .all())
+                .next();
+    }
+
+    /**
+     * Streams all formulations with their ingredients, ordered by id.
+     * Rows are read from a single joined query and grouped as they arrive, so no more than one
+     * formulation is held in memory at a time.
+     *
+     * @return The formulations.
+     */
+    public Flux<FeedResponse> findAllWithIngredients() {
+        return assemble(databaseClient.sql(SELECT_WITH_INGREDIENTS + "order by f.id, i.id")
+                .map(FormulationRow::of)
+                .all());
+    }
+
+    /**
+     * Writes a re-solved formulation: its own columns, then only the ingredient rows that changed.
+     * The update only applies if the version read with the formulation is still current, as with
+     * the JPA entity. Must run inside a transaction so the statements commit together.
+     *
+     * @param response The formulation with its new values and the version it was read with.
+     * @param changes  The ingredient rows updated, added or removed by the re-solve.
+     * @return Completes when written, or an OptimisticLockingFailureException error if the
+     * formulation was changed or deleted since it was read.
+     */
+    public Mono<Void> update(FeedResponse response, IngredientChanges changes) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("update feed_response set formulation_name = :formulationName, "
+                        + "quantity = :quantity, target_cp_value = :targetCpValue, catalog_version = :catalogVersion, "
+                        + "packed_quantities = :packedQuantities, version = version + 1 where id = :id and version = :version")
+                .bind("formulationName", response.getFormulationName())
+                .bind("quantity", response.getQuantity())
+                .bind("targetCpValue", response.getTargetCpValue())
+                .bind("id", response.getId())
+                .bind("version", response.getVersion());
+        spec = response.getCatalogVersion() == null
+                ? spec.bindNull("catalogVersion", Long.class)
+                : spec.bind("catalogVersion", response.getCatalogVersion());
+        spec = response.getPackedQuantities() == null
+                ? spec.bindNull("packedQuantities", byte[].class)
+                : spec.bind("packedQuantities", response.getPackedQuantities());
+        return spec.fetch().rowsUpdated()
+                .flatMap(updated -> updated == 0
+                        ? Mono.<Long>error(new OptimisticLockingFailureException(
+                        "Formulation " + response.getFormulationId() + " was changed by another transaction."))
+                        : Mono.just(updated))
+                .doOnNext(updated -> response.setVersion(response.getVersion() + 1))
+                .then(Mono.defer(() -> deleteIngredients(changes.removed())))
+                .then(Mono.defer(() -> updateIngredients(changes.updated())))
+                .then(Mono.defer(() -> insertIngredients(response.getId(), changes.added())))
+                .then();
+    }
+
+    private Mono<Long> deleteIngredients(List<Ingredient> ingredients) {
+        if (ingredients.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.sql("delete from ingredient where id in (:ids)")
+                .bind("ids", ingredients.stream().map(Ingredient::getId).toList())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<Long> updateIngredients(List<Ingredient> ingredients) {
+        if (ingredients.isEmpty()) {
+            return Mono.just(0L);
+        }
+        // One statement for every changed row instead of a round trip per ingredient
+        StringBuilder quantity = new StringBuilder("update ingredient set quantity = case id");
+        StringBuilder crudeProtein = new StringBuilder(" end, crude_protein = case id");
+        StringBuilder ids = new StringBuilder(" end where id in (");
+        for (int i = 0; i < ingredients.size(); i++) {
+            quantity.append(" when :id").append(i).append(" then :quantity").append(i);
+            crudeProtein.append(" when :id").append(i).append(" then :crudeProtein").append(i);
+            ids.append(i == 0 ? "" : ", ").append(":id").append(i);
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(quantity.append(crudeProtein).append(ids).append(")").toString());
+        for (int i = 0; i < ingredients.size(); i++) {
+            Ingredient ingredient = ingredients.get(i);
+            spec = spec.bind("id" + i, ingredient.getId())
+                    .bind("quantity" + i, ingredient.getQuantity())
+                    .bind("crudeProtein" + i, ingredient.getCrudeProtein());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    /**
+     * Deletes a formulation and its ingredients.
+     * The delete only applies if the version read with the formulation is still current, as with
+     * the JPA entity. Must run inside a transaction so the two deletes commit together, and so the
+     * ingredient delete is rolled back when the version check fails.
+     *
+     * @param response The formulation with the id and version it was read with.
+     * @return Completes when deleted, or an OptimisticLockingFailureException error if the
+     * formulation was changed or deleted since it was read.
+     */
+    public Mono<Void> delete(FeedResponse response) {
+        return databaseClient.sql("delete from ingredient where feed_response_id = :id")
+                .bind("id", response.getId())
+                .fetch()
+                .rowsUpdated()
+                .then(databaseClient.sql("delete from feed_response where id = :id and version = :version")
+                        .bind("id", response.getId())
+                        .bind("version", response.getVersion())
+                        .fetch()
+                        .rowsUpdated())
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.<Void>error(new OptimisticLockingFailureException(
+                        "Formulation " + response.getFormulationId() + " was changed by another transaction."))
+                        : Mono.<Void>empty());
+    }
+
+    private Flux<FeedResponse> assemble(Flux<FormulationRow> rows) {
+        return rows.bufferUntilChanged(FormulationRow::id)
+                .map(ReactiveFeedFormulationRepository::toFeedResponse)
+                .concatMap(this::unpack);
+    }
+
+    private Mono<FeedResponse> unpack(FeedResponse response) {
+        if (response.getPackedQuantities() == null) {
+            return Mono.just(response);
+        }
+        double[] quantities = PackedQuantities.unpack(response.getPackedQuantities());
+        return findCatalog(response.getCatalogVersion()).map(entries -> {
+            List<Ingredient> ingredients = new ArrayList<>(quantities.length);
+            for (int i = 0; i < quantities.length; i++) {
+                ingredients.add(Ingredient.builder()
+                        .name(entries.get(i).name())
+                        .crudeProtein(entries.get(i).crudeProtein())
+                        .quantity(quantities[i])
+                        .feedResponse(response)
+                        .build());
+            }
+            response.setIngredients(ingredients);
+            return response;
+        });
+    }
+
+    /**
+     * Names and crude protein values of a catalog version, read once and then kept in memory;
+     * catalog versions never change once written.
+     */
+    private Mono<List<CatalogEntry>> findCatalog(long version) {
+        List<CatalogEntry> cached = catalog.get(version);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return databaseClient.sql("select name, crude_protein from ingredient_catalog "
+                        + "where catalog_version = :version order by ingredient_position")
+                .bind("version", version)
+                .map(row -> new CatalogEntry(row.get("name", String.class), row.get("crude_protein", Double.class)))
+                .all()
+                .collectList()
+                .flatMap(entries -> entries.isEmpty()
+                        ? Mono.error(new IllegalStateException("Ingredient table version " + version + " is not in the catalog."))
+                        : Mono.just(entries))
+                .doOnNext(entries -> catalog.putIfAbsent(version, entries));
+    }
+
+    private record CatalogEntry(String name, double crudeProtein) {
+    }
+
+    private static FeedResponse toFeedResponse(List<FormulationRow> rows) {
+        FormulationRow first = rows.get(0);
+        FeedResponse response = FeedResponse.builder()
+                .id(first.id())
+                .formulationId(first.formulationId())
+                .formulationName(first.formulationName())
+                .date(first.date())
+                .quantity(first.quantity())
+                .targetCpValue(first.targetCpValue())
+                .version(first.version())
+                .catalogVersion(first.catalogVersion())
+                .packedQuantities(first.packedQuantities())
+                .build();
+        List<Ingredient> ingredients = new ArrayList<>(rows.size());
+        for (FormulationRow row : rows) {
+            if (row.ingredientName() != null) {
+                ingredients.add(Ingredient.builder()
+                        .id(row.ingredientId())
+                        .name(row.ingredientName())
+                        .crudeProtein(row.crudeProtein())
+                        .quantity(row.ingredientQuantity())
+                        .feedResponse(response)
+                        .build());
+            }
+        }
+        response.setIngredients(ingredients);
+        return response;
+    }
+
+    private record FormulationRow(long id, String formulationId, String formulationName, LocalDate date,
+                                  double quantity, double targetCpValue, long version,
+                                  Long catalogVersion, byte[] packedQuantities,
+                                  Long ingredientId, String ingredientName, Double crudeProtein, Double ingredientQuantity) {
+
+        static FormulationRow of(Readable row) {
+            return new FormulationRow(row.get("id", Long.class), row.get("formulation_id", String.class),
+                    row.get("formulation_name", String.class), row.get("date", LocalDate.class),
+                    row.get("quantity", Double.class), row.get("target_cp_value", Double.class),
+                    row.get("version", Long.class),
+                    row.get("catalog_version", Long.class), row.get("packed_quantities", byte[].class),
+                    row.get("ingredient_id", Long.class),
+                    row.get("name", String.class), row.get("crude_protein", Double.class),
+                    row.get("ingredient_quantity", Double.class));
+        }
+    }
+
+    /**
+     * Hands out ids from the same pooled sequences Hibernate uses for the entities, following
+     * Hibernate's pooled optimizer: a sequence value v reserves the ids (v - increment, v].
+     * The initial value 1 is used on its own rather than fetching the next value as the end of its
+     * block, because concurrent callers may take that next value first and would then share ids.
+     * On MySQL the sequence is a table incremented with a compare-and-set update, as Hibernate does it;
+     * an update lost to another node is retried a bounded number of times with backoff, and a missing
+     * sequence row fails at once.
+     */
+    private final class PooledSequence {
+
+        private final String name;
+        private final int incrementSize;
+        private final boolean table;
+        private final AtomicReference<Block> block = new AtomicReference<>(new Block(1, 0));
+
+        private PooledSequence(String name, int incrementSize, boolean table) {
+            this.name = name;
+            this.incrementSize = incrementSize;
+            this.table = table;
+        }
+
+        private record Block(AtomicLong next, long hi) {
+
+            private Block(long next, long hi) {
+                this(new AtomicLong(next), hi);
+            }
+        }
+
+        Mono<Long> nextValue() {
+            return Mono.defer(() -> {
+                Block current = block.get();
+                long id = current.next().getAndIncrement();
+                if (id <= current.hi()) {
+                    return Mono.just(id);
+                }
+                // Concurrent callers may each fetch a block; every block is reserved in the
+                // database, so a block replaced here only leaves a gap in the ids
+                return fetchBlock().map(fetched -> {
+                    long first = fetched.next().getAndIncrement();
+                    block.set(fetched);
+                    return first;
+                });
+            });
+        }
+
+        private Mono<Block> fetchBlock() {
+            return fetchValue().map(value -> value == 1
+                    ? new Block(1, 1)
+                    : new Block(value - incrementSize + 1, value));
+        }
+
+        /**
+         * Reads the next sequence value on a connection of its own, outside any surrounding
+         * transaction, so that the sequence row is never locked until the caller commits.
+         */
+        private Mono<Long> fetchValue() {
+            return Mono.usingWhen(connectionFactory.create(),
+                    connection -> table ? fetchFromTable(connection) : queryLong(connection, "select next value for " + name),
+                    Connection::close);
+        }
+
+        private Mono<Long> fetchFromTable(Connection connection) {
+            return Mono.defer(() -> queryLong(connection, "select next_val from " + name)
+                            .switchIfEmpty(Mono.error(() -> new EmptyResultDataAccessException(
+                                    "Sequence table " + name + " has no row.", 1)))
+                            .flatMap(value -> Flux.from(connection.createStatement("update " + name + " set next_val = ? where next_val = ?")
+                                            .bind(0, value + incrementSize)
+                                            .bind(1, value)
+                                            .execute())
+                                    .flatMap(Result::getRowsUpdated)
+                                    .next()
+                                    .flatMap(updated -> updated == 1
+                                            ? Mono.just(value)
+                                            : Mono.error(() -> new CannotAcquireLockException(
+                                                    "Sequence table " + name + " was updated concurrently.")))))
+                    // Another node took the value first; read it again after a growing pause
+                    .retryWhen(Retry.backoff(SEQUENCE_RETRIES, SEQUENCE_BACKOFF)
+                            .filter(CannotAcquireLockException.class::isInstance)
+                            .onRetryExhaustedThrow((spec, signal) -> new CannotAcquireLockException(
+                                    "Sequence table " + name + " stayed contended after " + SEQUENCE_RETRIES + " retries.",
+                                    signal.failure())));
+        }
+
+        private Mono<Long> queryLong(Connection connection, String sql) {
+            return Flux.from(connection.createStatement(sql).execute())
+                    .flatMap(result -> result.map(row -> row.get(0, Long.class)))
+                    .next();
+        }
+    }
+}
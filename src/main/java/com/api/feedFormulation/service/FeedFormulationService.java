@@ -1,9 +1,24 @@
 package com.api.feedFormulation.service;
 
+import com.api.feedFormulation.cache.CachedFormulation;
+import com.api.feedFormulation.dto.BulkFormulationResultDTO;
+import com.api.feedFormulation.dto.CacheStatsDTO;
 import com.api.feedFormulation.dto.FeedRequestDTO;
 import com.api.feedFormulation.dto.FeedResponseDTO;
+import com.api.feedFormulation.dto.FeedSummaryDTO;
+import com.api.feedFormulation.dto.FormulationSearchDTO;
+import com.api.feedFormulation.dto.ImportResultDTO;
+import com.api.feedFormulation.dto.KeysetPageDTO;
+import com.api.feedFormulation.dto.PersistenceStatusDTO;
+import com.api.feedFormulation.dto.SweepRequestDTO;
+import com.api.feedFormulation.dto.SweepResultDTO;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service interface for managing feed formulations.
@@ -19,6 +34,41 @@ public interface FeedFormulationService {
      */
     FeedResponseDTO calculateFeed(FeedRequestDTO request);
 
+    /**
+     * Calculate a feed formulation and return it at once, saving it in the background.
+     *
+     * @param request The FeedRequestDTO containing the details for the formulation.
+     * @return The calculated FeedResponseDTO with the formulation details.
+     */
+    FeedResponseDTO calculateFeedAsync(FeedRequestDTO request);
+
+    /**
+     * Report whether a formulation accepted for background saving has been saved.
+     *
+     * @param formulationId The ID of the formulation.
+     * @param date The date of the formulation.
+     * @return The PersistenceStatusDTO of the formulation.
+     */
+    PersistenceStatusDTO getPersistenceStatus(String formulationId, String date);
+
+    /**
+     * Calculate and create many feed formulations in one call.
+     * Invalid items are rejected individually without failing the rest of the batch.
+     *
+     * @param requests The FeedRequestDTOs for the formulations to create.
+     * @return One result per request, in request order.
+     */
+    List<BulkFormulationResultDTO> calculateFeeds(List<FeedRequestDTO> requests);
+
+    /**
+     * Solve every combination of target CP values and quantities in a sweep without saving anything.
+     * The request is validated immediately; the points are solved in parallel once the stream is consumed.
+     *
+     * @param request The SweepRequestDTO describing the two ranges.
+     * @return A stream of SweepResultDTOs, one per point in completion order, to be closed by the caller.
+     */
+    Stream<SweepResultDTO> sweepFormulations(SweepRequestDTO request);
+
     /**
      * Retrieve a feed formulation by its formulation ID and date.
      *
@@ -28,6 +78,15 @@ public interface FeedFormulationService {
      */
     FeedResponseDTO getFeedResponseByFormulationIdAndDate(String formulationId, String date);
 
+    /**
+     * Retrieve a feed formulation by its formulation ID and date as pre-serialized JSON.
+     *
+     * @param formulationId The ID of the formulation.
+     * @param date The date of the formulation.
+     * @return The JSON bytes of the FeedResponseDTO with their ETag.
+     */
+    CachedFormulation getSerializedFeedResponse(String formulationId, String date);
+
     /**
      * Retrieve all feed formulations.
      *
@@ -35,6 +94,64 @@ public interface FeedFormulationService {
      */
     List<FeedResponseDTO> getAllFeedFormulations();
 
+    /**
+     * Retrieve one keyset page of feed formulations, ordered by their internal id.
+     *
+     * @param after The cursor returned with the previous page, or null for the first page.
+     * @param size The maximum number of formulations on the page.
+     * @return The page of FeedResponseDTOs and the cursor for the next page.
+     */
+    KeysetPageDTO<FeedResponseDTO> getFeedFormulationsPage(String after, int size);
+
+    /**
+     * Retrieve one keyset page of formulation summaries, without ingredients, ordered by their internal id.
+     *
+     * @param after The cursor returned with the previous page, or null for the first page.
+     * @param size The maximum number of summaries on the page.
+     * @return The page of FeedSummaryDTOs and the cursor for the next page.
+     */
+    KeysetPageDTO<FeedSummaryDTO> getFeedSummariesPage(String after, int size);
+
+    /**
+     * Search formulation summaries, without ingredients, by date range, name prefix and quantity and
+     * target CP ranges, one keyset page at a time ordered by date and internal id.
+     *
+     * @param search The filters; unset filters match every formulation.
+     * @param after The cursor returned with the previous page, or null for the first page.
+     * @param size The maximum number of summaries on the page.
+     * @return The page of matching FeedSummaryDTOs and the cursor for the next page.
+     */
+    KeysetPageDTO<FeedSummaryDTO> searchFeedSummaries(FormulationSearchDTO search, String after, int size);
+
+    /**
+     * Stream all feed formulations to the given consumer, one keyset page at a time,
+     * so memory use stays constant regardless of the number of formulations.
+     *
+     * @param consumer The consumer receiving each FeedResponseDTO in id order.
+     */
+    void streamFeedFormulations(Consumer<FeedResponseDTO> consumer);
+
+    /**
+     * Export all feed formulations with their ingredients as CSV, one line per ingredient.
+     * Rows are read through a forward-only database cursor and written as they arrive,
+     * so memory use stays constant regardless of the number of formulations.
+     *
+     * @param writer The writer receiving the CSV text, in formulation id order.
+     * @throws IOException if the writer fails, for example because the client disconnected.
+     */
+    void exportFeedFormulations(Writer writer) throws IOException;
+
+    /**
+     * Import formulations with their ingredients from CSV in the export layout, one line per ingredient.
+     * The text is read one formulation at a time and saved in chunks, each in its own transaction,
+     * so files of any size can be imported. Invalid formulations are rejected individually.
+     *
+     * @param reader The CSV text.
+     * @return The number of imported and rejected formulations with the first rejections.
+     * @throws IOException if the text cannot be read.
+     */
+    ImportResultDTO importFeedFormulations(Reader reader) throws IOException;
+
     /**
      * Update an existing feed formulation with new details.
      *
@@ -53,6 +170,13 @@ public interface FeedFormulationService {
      */
     void deleteFeedResponse(String formulationId, String date);
 
+    /**
+     * Retrieve the hit, miss and eviction counters of the in-process caches.
+     *
+     * @return One CacheStatsDTO per cache.
+     */
+    List<CacheStatsDTO> getCacheStats();
+
 
 
 }
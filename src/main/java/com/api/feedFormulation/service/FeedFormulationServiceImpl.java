@@ -1,89 +1,393 @@
 package com.api.feedFormulation.service;
 
+import com.api.feedFormulation.cache.CachedFormulation;
+import com.api.feedFormulation.cache.FeedResponseCache;
+import com.api.feedFormulation.cache.FormulationResultCache;
+import com.api.feedFormulation.dto.BulkFormulationResultDTO;
+import com.api.feedFormulation.dto.CacheStatsDTO;
 import com.api.feedFormulation.dto.FeedRequestDTO;
 import com.api.feedFormulation.dto.FeedResponseDTO;
+import com.api.feedFormulation.dto.FeedSummaryDTO;
+import com.api.feedFormulation.dto.FormulationSearchDTO;
+import com.api.feedFormulation.dto.ImportRejectionDTO;
+import com.api.feedFormulation.dto.ImportResultDTO;
+import com.api.feedFormulation.dto.IngredientDTO;
+import com.api.feedFormulation.dto.KeysetPageDTO;
+import com.api.feedFormulation.dto.PersistenceStatusDTO;
+import com.api.feedFormulation.dto.SolverMode;
+import com.api.feedFormulation.dto.SweepRequestDTO;
+import com.api.feedFormulation.dto.SweepResultDTO;
 import com.api.feedFormulation.exception.InvalidInputException;
+import com.api.feedFormulation.metrics.FeedFormulationMetrics;
+import com.api.feedFormulation.metrics.FeedFormulationMetrics.Stage;
 import com.api.feedFormulation.model.FeedResponse;
 import com.api.feedFormulation.model.Ingredient;
 import com.api.feedFormulation.repository.FeedFormulationRepository;
+import com.api.feedFormulation.utils.Constants;
 import com.api.feedFormulation.utils.FeedFormulationSupport;
+import com.api.feedFormulation.utils.FormulationCsvReader;
+import com.api.feedFormulation.utils.FormulationCsvWriter;
+import com.api.feedFormulation.utils.FormulationResult;
+import com.api.feedFormulation.utils.ImportedFormulation;
+import com.api.feedFormulation.utils.IngredientChanges;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive")
 @RequiredArgsConstructor
 @Slf4j
 public class FeedFormulationServiceImpl implements FeedFormulationService {
 
     private final FeedFormulationRepository repository;
     private final FeedFormulationSupport support;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final FormulationResultCache formulationResultCache;
+    private final FeedResponseCache feedResponseCache;
+    private final FeedFormulationMetrics metrics;
+    private final FormulationWriteBehindQueue writeBehindQueue;
+    private final FormulationChunkWriter chunkWriter;
+    private final FormulationSweepExecutor sweepExecutor;
+
+    @Value("${feedFormulation.export.fetchSize:1000}")
+    private int exportFetchSize = 1000;
 
     /**
      * Calculates feed formulation based on the given request.
      * Validates the request, generates ingredients, and saves the feed response.
+     * Name uniqueness is enforced by the unique constraint on insert rather than checked first,
+     * so concurrent creates with the same name cannot both succeed and no extra query is needed.
      *
      * @param request The request containing quantity and target crude protein value.
      * @return The saved feed response as a DTO.
+     * @throws InvalidInputException if the request is invalid or the name is taken.
      */
     @Transactional
     @Override
     public FeedResponseDTO calculateFeed(FeedRequestDTO request) {
         log.info("Starting feed formulation calculation.");
+        metrics.recordTransaction("create");
+
+        // Validate request values
+        metrics.record(Stage.VALIDATE, () ->
+                support.validateRequest(request.getFormulationName(), request.getQuantity(), request.getTargetCpValue()));
+
+        // Solve ingredient quantities for the requested quantity and target CP
+        FormulationResult formulation = metrics.record(Stage.SOLVE, () ->
+                support.solve(request.getQuantity(), request.getTargetCpValue(), request.getSolverMode()));
+
+        // Build FeedResponse entity with its ingredients in the configured storage format
+        FeedResponse response = getFeedResponse(request, formulation);
+
+        // Save the FeedResponse entity, flushing so that a duplicate name is reported here
+        FeedResponse savedResponse = saveAndFlush(response);
+
+        FeedResponseDTO responseDTO = metrics.record(Stage.MAP, () ->
+                support.mapToDTO(savedResponse, formulation.getIngredientDTOs()));
+        feedResponseCache.putAfterCommit(responseDTO);
+
+        log.info("Feed formulation calculation completed.");
+        return responseDTO;
+    }
+
+    /**
+     * Calculates feed formulation based on the given request and returns it without waiting for it to be saved.
+     * The formulation is handed to the write-behind queue, which saves it in a batch shortly after;
+     * {@link #getPersistenceStatus} reports when it is durable, or that it failed because its name is taken.
+     *
+     * @param request The request containing quantity and target crude protein value.
+     * @return The calculated feed response as a DTO.
+     * @throws InvalidInputException if the request is invalid or the name is already queued.
+     * @throws com.api.feedFormulation.exception.ServiceUnavailableException if the write-behind queue is full.
+     */
+    @Override
+    public FeedResponseDTO calculateFeedAsync(FeedRequestDTO request) {
+        log.info("Starting asynchronous feed formulation calculation.");
 
-        if (repository.existsByFormulationName(request.getFormulationName())) {
+        metrics.record(Stage.VALIDATE, () ->
+                support.validateRequest(request.getFormulationName(), request.getQuantity(), request.getTargetCpValue()));
+        // Names already saved are caught by the unique constraint when the writer saves the formulation
+        if (writeBehindQueue.isPending(request.getFormulationName())) {
             throw new InvalidInputException("Formulation name must be unique.");
         }
 
-        // Validate request values
-        support.validateRequest(request.getFormulationName(), request.getQuantity(), request.getTargetCpValue());
+        FormulationResult formulation = metrics.record(Stage.SOLVE, () ->
+                support.solve(request.getQuantity(), request.getTargetCpValue(), request.getSolverMode()));
+        FeedResponse response = getFeedResponse(request, formulation);
+
+        FeedResponseDTO responseDTO = mapToDTO(response, formulation.getIngredientDTOs());
+        writeBehindQueue.enqueue(response, responseDTO);
+
+        log.info("Feed formulation {} queued for saving.", response.getFormulationId());
+        return responseDTO;
+    }
+
+    /**
+     * Reports whether a formulation accepted by {@link #calculateFeedAsync} is still queued, saved or failed.
+     *
+     * @param formulationId The unique ID of the feed formulation.
+     * @param date The date of the feed formulation.
+     * @return The persistence status of the formulation.
+     */
+    @Override
+    public PersistenceStatusDTO getPersistenceStatus(String formulationId, String date) {
+        return writeBehindQueue.getStatus(formulationId, date);
+    }
 
+    /**
+     * Calculates and saves many feed formulations in one call.
+     * All names are checked for uniqueness with a single set query, and accepted
+     * formulations are saved in chunks of {@link Constants#BULK_CHUNK_SIZE}, each in its own transaction.
+     * A chunk that fails to save is retried one formulation at a time, so only the bad ones are rejected.
+     *
+     * @param requests The requests containing formulation name, quantity and target crude protein value.
+     * @return One result per request, in request order.
+     * @throws InvalidInputException if the list is empty or larger than {@link Constants#MAX_BULK_SIZE}.
+     */
+    @Override
+    public List<BulkFormulationResultDTO> calculateFeeds(List<FeedRequestDTO> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > Constants.MAX_BULK_SIZE) {
+            throw new InvalidInputException("Bulk request must contain between 1 and " + Constants.MAX_BULK_SIZE + " formulations.");
+        }
+        log.info("Starting bulk feed formulation calculation for {} requests.", requests.size());
+        metrics.recordBulkSize(requests.size());
 
-        // Create ingredients based on quantity
-        List<Ingredient> ingredients = support.createIngredients(request.getQuantity());
+        BulkFormulationResultDTO[] results = new BulkFormulationResultDTO[requests.size()];
+        Set<String> existingNames = findExistingFormulationNames(requests);
+        Set<String> batchNames = new HashSet<>();
+        List<BulkItem> accepted = new ArrayList<>();
 
-        // Build FeedResponse entity
-        FeedResponse response = getFeedResponse(request, ingredients);
+        for (int i = 0; i < requests.size(); i++) {
+            FeedRequestDTO request = requests.get(i);
+            String rejection = metrics.record(Stage.VALIDATE, () -> validateBulkItem(request, existingNames, batchNames));
+            if (rejection != null) {
+                results[i] = rejected(i, request == null ? null : request.getFormulationName(), rejection);
+                continue;
+            }
+            FormulationResult formulation;
+            try {
+                formulation = metrics.record(Stage.SOLVE, () ->
+                        support.solve(request.getQuantity(), request.getTargetCpValue(), request.getSolverMode()));
+            } catch (InvalidInputException e) {
+                results[i] = rejected(i, request.getFormulationName(), e.getMessage());
+                continue;
+            }
+            accepted.add(new BulkItem(i, getFeedResponse(request, formulation), formulation));
+        }
 
-        // Associate ingredients with the feed response
-        support.setFeedResponseToIngredients(response, ingredients);
+        FormulationChunkWriter.Outcome<BulkItem> outcome = new FormulationChunkWriter.Outcome<>() {
+            @Override
+            public void onSaved(BulkItem item) {
+                results[item.index()] = created(item.index(), item.response(), item.formulation());
+            }
 
-        // Save the FeedResponse entity
-        FeedResponse savedResponse = repository.save(response);
+            @Override
+            public void onRejected(BulkItem item, String message) {
+                results[item.index()] = rejected(item.index(), item.response().getFormulationName(), message);
+            }
+        };
+        for (int from = 0; from < accepted.size(); from += Constants.BULK_CHUNK_SIZE) {
+            chunkWriter.save("bulk_chunk", accepted.subList(from, Math.min(from + Constants.BULK_CHUNK_SIZE, accepted.size())),
+                    BulkItem::response, outcome);
+        }
 
-        log.info("Feed formulation calculation completed.");
-        return support.mapToDTO(savedResponse);
+        List<BulkFormulationResultDTO> resultList = List.of(results);
+        long created = resultList.stream()
+                .filter(result -> result.getStatus() == BulkFormulationResultDTO.Status.CREATED)
+                .count();
+        log.info("Bulk feed formulation calculation completed: {} created, {} rejected.",
+                created, resultList.size() - created);
+        metrics.recordBulkRejected(resultList.size() - created);
+        return resultList;
     }
 
-    private FeedResponse getFeedResponse(FeedRequestDTO request, List<Ingredient> ingredients) {
-        return FeedResponse.builder()
+    private Set<String> findExistingFormulationNames(List<FeedRequestDTO> requests) {
+        List<String> names = requests.stream()
+                .filter(Objects::nonNull)
+                .map(FeedRequestDTO::getFormulationName)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < names.size(); from += Constants.IN_CLAUSE_CHUNK_SIZE) {
+            existing.addAll(repository.findExistingFormulationNames(
+                    names.subList(from, Math.min(from + Constants.IN_CLAUSE_CHUNK_SIZE, names.size()))));
+        }
+        return existing;
+    }
+
+    private String validateBulkItem(FeedRequestDTO request, Set<String> existingNames, Set<String> batchNames) {
+        if (request == null || request.getFormulationName() == null || request.getFormulationName().isBlank()) {
+            return "Formulation name is required.";
+        }
+        if (existingNames.contains(request.getFormulationName()) || !batchNames.add(request.getFormulationName())) {
+            return "Formulation name must be unique.";
+        }
+        try {
+            support.validateRequest(request.getFormulationName(), request.getQuantity(), request.getTargetCpValue());
+        } catch (InvalidInputException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    /**
+     * A bulk formulation accepted for saving, with its position in the request.
+     */
+    private record BulkItem(int index, FeedResponse response, FormulationResult formulation) {
+    }
+
+    private BulkFormulationResultDTO created(int index, FeedResponse saved, FormulationResult formulation) {
+        return BulkFormulationResultDTO.builder()
+                .index(index)
+                .formulationName(saved.getFormulationName())
+                .status(BulkFormulationResultDTO.Status.CREATED)
+                .formulation(mapToDTO(saved, formulation.getIngredientDTOs()))
+                .build();
+    }
+
+    private BulkFormulationResultDTO rejected(int index, String formulationName, String message) {
+        return BulkFormulationResultDTO.builder()
+                .index(index)
+                .formulationName(formulationName)
+                .status(BulkFormulationResultDTO.Status.REJECTED)
+                .message(message)
+                .build();
+    }
+
+    private FeedResponse getFeedResponse(FeedRequestDTO request, FormulationResult formulation) {
+        FeedResponse response = FeedResponse.builder()
                 .formulationId(support.generateGuid())
-                .date(java.time.LocalDate.now().toString())
+                .date(LocalDate.now())
                 .formulationName(request.getFormulationName()) // Set formulation name
                 .quantity(request.getQuantity())
                 .targetCpValue(request.getTargetCpValue())
-                .ingredients(ingredients)
                 .build();
+        metrics.record(Stage.INGREDIENTS, () -> support.applyFormulation(response, formulation));
+        return response;
+    }
+
+    /**
+     * Solves a what-if grid of target CP values and quantities without saving anything.
+     * The points are solved on the sweep executor and without the result cache,
+     * so a sweep neither waits on other requests' cache entries nor evicts them.
+     *
+     * @param request The request describing the target CP and quantity ranges.
+     * @return A sequential stream with one result per point in completion order; closing it stops the solving.
+     * @throws InvalidInputException if a range is invalid or the grid has more than {@link Constants#MAX_SWEEP_POINTS} points.
+     */
+    @Override
+    public Stream<SweepResultDTO> sweepFormulations(SweepRequestDTO request) {
+        double[] targets = sweepValues(request.getMinTargetCpValue(), request.getMaxTargetCpValue(), request.getTargetCpStep(), "Target CP");
+        double[] quantities = sweepValues(request.getMinQuantity(), request.getMaxQuantity(), request.getQuantityStep(), "Quantity");
+        long points = (long) targets.length * quantities.length;
+        if (points > Constants.MAX_SWEEP_POINTS) {
+            throw new InvalidInputException("Sweep must not exceed " + Constants.MAX_SWEEP_POINTS + " points.");
+        }
+        log.info("Sweeping {} target CP values by {} quantities.", targets.length, quantities.length);
+        SolverMode solverMode = request.getSolverMode();
+        return sweepExecutor.solve((int) points,
+                i -> sweepPoint(quantities[i / targets.length], targets[i % targets.length], solverMode));
+    }
+
+    private SweepResultDTO sweepPoint(double quantity, double targetCpValue, SolverMode solverMode) {
+        FormulationResult result = support.trySolve(quantity, targetCpValue, solverMode);
+        return SweepResultDTO.builder()
+                .quantity(quantity)
+                .targetCpValue(targetCpValue)
+                .feasible(result != null)
+                .message(result == null ? support.infeasibleMessage(solverMode) : null)
+                .ingredients(result == null ? null : result.getIngredientDTOs())
+                .build();
+    }
+
+    private static double[] sweepValues(double min, double max, double step, String name) {
+        if (!(step > 0) || !(min <= max)) {
+            throw new InvalidInputException(name + " range must have a positive step and a minimum not above the maximum.");
+        }
+        double count = Math.floor((max - min) / step + 1e-9) + 1;
+        if (count > Constants.MAX_SWEEP_POINTS) {
+            throw new InvalidInputException("Sweep must not exceed " + Constants.MAX_SWEEP_POINTS + " points.");
+        }
+        double[] values = new double[(int) count];
+        for (int i = 0; i < values.length; i++) {
+            // Computed from the index, not accumulated, and rounded to thousandths like cached inputs
+            values[i] = Math.round((min + i * step) * 1000.0) / 1000.0;
+        }
+        return values;
     }
 
     /**
      * Retrieves a feed response by formulation ID and date.
+     * Served from the read-through cache; the database is only queried on a miss.
      *
      * @param formulationId The unique ID of the feed formulation.
      * @param date The date of the feed formulation.
      * @return The feed response as a DTO.
-     * @throws InvalidInputException if no feed response is found.
+     * @throws InvalidInputException if the date is malformed or no feed response is found.
      */
     @Override
     public FeedResponseDTO getFeedResponseByFormulationIdAndDate(String formulationId, String date) {
         log.info("Fetching feed formulation with ID: {} and date: {}", formulationId, date);
-        FeedResponse response = repository.findByFormulationIdAndDate(formulationId, date)
+        LocalDate day = support.parseDate(date);
+        return feedResponseCache.get(formulationId, day, () -> loadFeedResponse(formulationId, day));
+    }
+
+    /**
+     * Retrieves a feed response by formulation ID and date as pre-serialized JSON.
+     * The bytes are built once when the formulation is written or first read, then served from the cache.
+     *
+     * @param formulationId The unique ID of the feed formulation.
+     * @param date The date of the feed formulation.
+     * @return The JSON bytes of the feed response with their ETag.
+     * @throws InvalidInputException if the date is malformed or no feed response is found.
+     */
+    @Override
+    public CachedFormulation getSerializedFeedResponse(String formulationId, String date) {
+        log.info("Fetching serialized feed formulation with ID: {} and date: {}", formulationId, date);
+        LocalDate day = support.parseDate(date);
+        return feedResponseCache.getSerialized(formulationId, day, () -> loadFeedResponse(formulationId, day));
+    }
+
+    private FeedResponseDTO loadFeedResponse(String formulationId, LocalDate date) {
+        FeedResponse response = repository.findWithIngredientsByFormulationIdAndDate(formulationId, date)
                 .orElseThrow(() -> new InvalidInputException("Feed formulation not found"));
-        return support.mapToDTO(response);
+        return mapToDTO(response);
+    }
+
+    private FeedResponseDTO mapToDTO(FeedResponse response) {
+        return metrics.record(Stage.MAP, () -> support.mapToDTO(response));
+    }
+
+    private FeedResponseDTO mapToDTO(FeedResponse response, List<IngredientDTO> ingredientDTOs) {
+        return metrics.record(Stage.MAP, () -> support.mapToDTO(response, ingredientDTOs));
     }
 
     /**
@@ -94,31 +398,419 @@ public class FeedFormulationServiceImpl implements FeedFormulationService {
     @Override
     public List<FeedResponseDTO> getAllFeedFormulations() {
         log.info("Fetching all feed formulations.");
-        return repository.findAll().stream()
-                .map(support::mapToDTO)
+        return repository.findAllWithIngredients().stream()
+                .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Updates an existing feed response based on formulation ID and date.
+     * Retrieves one keyset page of feed formulations ordered by id.
+     *
+     * @param after The cursor of the previous page, or null for the first page.
+     * @param size The maximum number of formulations to return.
+     * @return The page of feed formulations as DTOs with the next cursor.
+     * @throws InvalidInputException if the cursor or page size is invalid.
+     */
+    @Override
+    public KeysetPageDTO<FeedResponseDTO> getFeedFormulationsPage(String after, int size) {
+        if (size < 1 || size > Constants.MAX_PAGE_SIZE) {
+            throw new InvalidInputException("Page size must be between 1 and " + Constants.MAX_PAGE_SIZE + ".");
+        }
+        log.info("Fetching feed formulations page after: {} with size: {}", after, size);
+        List<FeedResponse> page = findPageWithIngredients(parseCursor(after), size);
+        List<FeedResponseDTO> items = page.stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+        return KeysetPageDTO.<FeedResponseDTO>builder()
+                .items(items)
+                .nextCursor(page.size() < size ? null : String.valueOf(page.get(page.size() - 1).getId()))
+                .build();
+    }
+
+    /**
+     * Retrieves one keyset page of formulation summaries ordered by id, reading only the
+     * formulation columns.
+     *
+     * @param after The cursor of the previous page, or null for the first page.
+     * @param size The maximum number of summaries to return.
+     * @return The page of summaries with the next cursor.
+     * @throws InvalidInputException if the cursor or page size is invalid.
+     */
+    @Override
+    public KeysetPageDTO<FeedSummaryDTO> getFeedSummariesPage(String after, int size) {
+        if (size < 1 || size > Constants.MAX_PAGE_SIZE) {
+            throw new InvalidInputException("Page size must be between 1 and " + Constants.MAX_PAGE_SIZE + ".");
+        }
+        log.info("Fetching feed formulation summaries after: {} with size: {}", after, size);
+        List<FeedSummaryDTO> page = repository.findSummariesAfter(parseCursor(after), Limit.of(size));
+        return KeysetPageDTO.<FeedSummaryDTO>builder()
+                .items(page)
+                .nextCursor(page.size() < size ? null : String.valueOf(page.get(page.size() - 1).getId()))
+                .build();
+    }
+
+    /**
+     * Searches formulation summaries one keyset page at a time, ordered by date and id.
+     * Only the filters that are set become predicates, and the cursor continues from the
+     * (date, id) of the last summary. Searches within a date range read the (date, id) index in
+     * order; see {@link com.api.feedFormulation.repository.FeedFormulationSearchRepository} for the sort
+     * other filters may need.
+     *
+     * @param search The filters.
+     * @param after The cursor of the previous page in "date:id" form, or null for the first page.
+     * @param size The maximum number of summaries to return.
+     * @return The page of matching summaries with the next cursor.
+     * @throws InvalidInputException if a range, the cursor or the page size is invalid.
+     */
+    @Override
+    public KeysetPageDTO<FeedSummaryDTO> searchFeedSummaries(FormulationSearchDTO search, String after, int size) {
+        if (size < 1 || size > Constants.MAX_PAGE_SIZE) {
+            throw new InvalidInputException("Page size must be between 1 and " + Constants.MAX_PAGE_SIZE + ".");
+        }
+        if (search.getFromDate() != null && search.getToDate() != null && search.getFromDate().isAfter(search.getToDate())) {
+            throw new InvalidInputException("fromDate must not be after toDate.");
+        }
+        validateSearchRange(search.getMinQuantity(), search.getMaxQuantity(), "Quantity");
+        validateSearchRange(search.getMinTargetCpValue(), search.getMaxTargetCpValue(), "TargetCpValue");
+        if (search.getNamePrefix() != null && search.getNamePrefix().isEmpty()) {
+            search.setNamePrefix(null);
+        }
+        log.info("Searching feed formulation summaries matching {} after: {} with size: {}", search, after, size);
+
+        LocalDate afterDate = null;
+        Long afterId = null;
+        if (after != null && !after.isBlank()) {
+            int separator = after.lastIndexOf(':');
+            try {
+                afterDate = LocalDate.parse(after.substring(0, Math.max(separator, 0)));
+                afterId = Long.parseLong(after.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new InvalidInputException("Invalid page cursor.");
+            }
+        }
+        List<FeedSummaryDTO> page = repository.searchSummaries(search, afterDate, afterId, size);
+        FeedSummaryDTO last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return KeysetPageDTO.<FeedSummaryDTO>builder()
+                .items(page)
+                .nextCursor(page.size() < size ? null : last.getDate() + ":" + last.getId())
+                .build();
+    }
+
+    private void validateSearchRange(Double min, Double max, String name) {
+        if (min != null && max != null && min > max) {
+            throw new InvalidInputException("min" + name + " must not be greater than max" + name + ".");
+        }
+    }
+
+    /**
+     * Streams all feed formulations page by page. Each page is read and mapped in a short read-only
+     * transaction of its own, and handed to the consumer only after that transaction has ended,
+     * so no connection is held while the response is being written to a slow client.
+     *
+     * @param consumer The consumer receiving each formulation as a DTO.
+     */
+    @Override
+    public void streamFeedFormulations(Consumer<FeedResponseDTO> consumer) {
+        log.info("Streaming all feed formulations.");
+        TransactionTemplate readPage = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        readPage.setReadOnly(true);
+        long cursor = 0L;
+        StreamPage page;
+        do {
+            long after = cursor;
+            page = readPage.execute(status -> {
+                metrics.recordTransaction("stream");
+                List<FeedResponse> responses = findPageWithIngredients(after, Constants.STREAM_PAGE_SIZE);
+                StreamPage read = new StreamPage(responses.stream().map(this::mapToDTO).toList(),
+                        responses.isEmpty() ? after : responses.get(responses.size() - 1).getId());
+                entityManager.clear();
+                return read;
+            });
+            page.formulations().forEach(consumer);
+            cursor = page.cursor();
+        } while (page.formulations().size() == Constants.STREAM_PAGE_SIZE);
+    }
+
+    /**
+     * A page of streamed formulations and the id of its last formulation.
+     */
+    private record StreamPage(List<FeedResponseDTO> formulations, long cursor) {
+    }
+
+    /**
+     * Exports all formulations as CSV within a single read transaction.
+     * One scalar query joins formulations to their ingredients and is read through a forward-only
+     * cursor with the configured fetch size, so the driver holds one fetch of rows at a time and no
+     * entities enter the persistence context. Packed formulations come back as a single row and are
+     * expanded through the ingredient catalog.
+     *
+     * @param writer The writer receiving the CSV text.
+     * @throws IOException if the writer fails.
+     */
+    @Transactional
+    @Override
+    public void exportFeedFormulations(Writer writer) throws IOException {
+        log.info("Exporting all feed formulations with fetch size {}.", exportFetchSize);
+        metrics.recordTransaction("export");
+        FormulationCsvWriter csv = new FormulationCsvWriter(writer);
+        csv.writeHeader();
+        try (ScrollableResults<Object[]> rows = entityManager.unwrap(Session.class)
+                .createSelectionQuery("select f.formulationId, f.formulationName, f.date, f.quantity, f.targetCpValue, "
+                        + "f.catalogVersion, f.packedQuantities, i.name, i.crudeProtein, i.quantity "
+                        + "from FeedResponse f left join f.ingredients i order by f.id, i.id", Object[].class)
+                .setFetchSize(exportFetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                Object[] row = rows.get();
+                String formulationId = (String) row[0];
+                String formulationName = (String) row[1];
+                String date = row[2] == null ? null : row[2].toString();
+                double quantity = (Double) row[3];
+                double targetCpValue = (Double) row[4];
+                if (row[6] != null) {
+                    for (IngredientDTO ingredient : support.unpackIngredients((Long) row[5], (byte[]) row[6])) {
+                        csv.writeIngredient(formulationId, formulationName, date, quantity, targetCpValue,
+                                ingredient.getName(), ingredient.getCrudeProtein(), ingredient.getQuantity());
+                    }
+                } else if (row[7] != null) {
+                    csv.writeIngredient(formulationId, formulationName, date, quantity, targetCpValue,
+                            (String) row[7], (Double) row[8], (Double) row[9]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Imports formulations from CSV. Formulations are read one at a time, validated like new requests
+     * and collected into chunks of {@link Constants#BULK_CHUNK_SIZE}. Each chunk is checked for taken
+     * names and IDs with one query each and saved in its own transaction with a larger JDBC batch, then
+     * flushed and cleared, so neither the file nor the persistence context grows with the import. If a
+     * chunk fails to save, its formulations are saved one by one so that only the bad ones are rejected.
+     * The ingredients are stored as given, without solving again.
+     *
+     * @param reader The CSV text.
+     * @return The import report.
+     * @throws IOException           if the text cannot be read.
+     * @throws InvalidInputException if the header is missing or lacks a required column.
+     */
+    @Override
+    public ImportResultDTO importFeedFormulations(Reader reader) throws IOException {
+        log.info("Starting feed formulation import.");
+        FormulationCsvReader csv = new FormulationCsvReader(reader);
+        ImportReport report = new ImportReport();
+        List<ImportedFormulation> chunk = new ArrayList<>(Constants.BULK_CHUNK_SIZE);
+        while (true) {
+            ImportedFormulation formulation;
+            try {
+                formulation = csv.next();
+            } catch (InvalidInputException e) {
+                // Nothing after an unclosed quote can be read reliably
+                report.reject(csv.getLineNumber(), null, e.getMessage());
+                break;
+            }
+            if (formulation == null) {
+                break;
+            }
+            String rejection = metrics.record(Stage.VALIDATE, () -> validateImportItem(formulation));
+            if (rejection != null) {
+                report.reject(formulation.line(), formulation.formulationName(), rejection);
+                continue;
+            }
+            chunk.add(formulation);
+            if (chunk.size() == Constants.BULK_CHUNK_SIZE) {
+                saveImportChunk(chunk, report);
+                chunk.clear();
+                log.info("Import progress: {} lines read, {} formulations imported, {} rejected.",
+                        csv.getLineNumber(), report.imported, report.rejected);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveImportChunk(chunk, report);
+        }
+        log.info("Feed formulation import completed: {} lines read, {} formulations imported, {} rejected.",
+                csv.getLineNumber(), report.imported, report.rejected);
+        return ImportResultDTO.builder()
+                .lines(csv.getLineNumber())
+                .imported(report.imported)
+                .rejected(report.rejected)
+                .rejections(report.rejections)
+                .build();
+    }
+
+    private String validateImportItem(ImportedFormulation formulation) {
+        if (formulation.error() != null) {
+            return formulation.error();
+        }
+        if (formulation.formulationName() == null) {
+            return "Formulation name is required.";
+        }
+        if (formulation.formulationId() != null && formulation.formulationId().length() > FeedResponse.FORMULATION_ID_LENGTH) {
+            return "Formulation ID must not be longer than " + FeedResponse.FORMULATION_ID_LENGTH + " characters.";
+        }
+        try {
+            support.parseDate(formulation.date());
+            support.validateRequest(formulation.formulationName(), formulation.quantity(), formulation.targetCpValue());
+        } catch (InvalidInputException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private void saveImportChunk(List<ImportedFormulation> chunk, ImportReport report) {
+        Set<String> existingNames = repository.findExistingFormulationNames(
+                chunk.stream().map(ImportedFormulation::formulationName).collect(Collectors.toSet()));
+        Set<String> existingIds = repository.findExistingFormulationIds(chunk.stream()
+                .map(ImportedFormulation::formulationId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        Set<String> chunkNames = new HashSet<>();
+        Set<String> chunkIds = new HashSet<>();
+        List<ImportItem> accepted = new ArrayList<>(chunk.size());
+        for (ImportedFormulation formulation : chunk) {
+            if (existingNames.contains(formulation.formulationName()) || !chunkNames.add(formulation.formulationName())) {
+                report.reject(formulation.line(), formulation.formulationName(), "Formulation name must be unique.");
+            } else if (formulation.formulationId() != null
+                    && (existingIds.contains(formulation.formulationId()) || !chunkIds.add(formulation.formulationId()))) {
+                report.reject(formulation.line(), formulation.formulationName(), "Formulation ID must be unique.");
+            } else {
+                accepted.add(new ImportItem(formulation.line(), toFeedResponse(formulation)));
+            }
+        }
+        // Fewer, larger batches for the many ingredient rows of a chunk
+        chunkWriter.save("import_chunk", Constants.IMPORT_JDBC_BATCH_SIZE, accepted, ImportItem::response,
+                new FormulationChunkWriter.Outcome<>() {
+                    @Override
+                    public void onSaved(ImportItem item) {
+                        report.imported++;
+                    }
+
+                    @Override
+                    public void onRejected(ImportItem item, String message) {
+                        report.reject(item.line(), item.response().getFormulationName(), message);
+                    }
+                });
+    }
+
+    /**
+     * An imported formulation accepted for saving, with the line it was read from.
+     */
+    private record ImportItem(long line, FeedResponse response) {
+    }
+
+    private FeedResponse toFeedResponse(ImportedFormulation formulation) {
+        FeedResponse response = FeedResponse.builder()
+                .formulationId(formulation.formulationId() != null ? formulation.formulationId() : support.generateGuid())
+                .formulationName(formulation.formulationName())
+                .date(LocalDate.parse(formulation.date()))
+                .quantity(formulation.quantity())
+                .targetCpValue(formulation.targetCpValue())
+                .build();
+        List<Ingredient> ingredients = new ArrayList<>(formulation.ingredients().size());
+        for (IngredientDTO ingredient : formulation.ingredients()) {
+            ingredients.add(Ingredient.builder()
+                    .name(ingredient.getName())
+                    .crudeProtein(ingredient.getCrudeProtein())
+                    .quantity(ingredient.getQuantity())
+                    .feedResponse(response)
+                    .build());
+        }
+        response.setIngredients(ingredients);
+        return response;
+    }
+
+    /**
+     * Counters and the first rejections of a running import.
+     */
+    private static final class ImportReport {
+
+        private long imported;
+        private long rejected;
+        private final List<ImportRejectionDTO> rejections = new ArrayList<>();
+
+        private void reject(long line, String formulationName, String message) {
+            rejected++;
+            if (rejections.size() < Constants.MAX_IMPORT_REJECTIONS) {
+                rejections.add(ImportRejectionDTO.builder()
+                        .line(line)
+                        .formulationName(formulationName)
+                        .message(message)
+                        .build());
+            }
+        }
+    }
+
+    private List<FeedResponse> findPageWithIngredients(long after, int size) {
+        List<Long> ids = repository.findIdsAfter(after, Limit.of(size));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return repository.findAllWithIngredientsByIdIn(ids);
+    }
+
+    private long parseCursor(String after) {
+        if (after == null || after.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            throw new InvalidInputException("Invalid page cursor.");
+        }
+    }
+
+    /**
+     * Updates an existing feed response based on formulation ID and date and re-solves its ingredients.
+     * The new breakdown is diffed against the stored one, so only the ingredient values that moved
+     * are written, in one batched update.
      *
      * @param formulationId The unique ID of the feed formulation.
      * @param date The date of the feed formulation.
      * @param request The request containing updated quantity and target crude protein value.
      * @return The updated feed response as a DTO.
-     * @throws InvalidInputException if the feed response to update is not found.
+     * @throws InvalidInputException if the feed response to update is not found, the new name is taken
+     * or the new target cannot be reached.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the formulation was changed concurrently.
      */
+    @Transactional
     @Override
     public FeedResponseDTO updateFeedResponse(String formulationId, String date, FeedRequestDTO request) {
         log.info("Updating feed formulation with ID: {} and date: {}", formulationId, date);
-        FeedResponse existingResponse = repository.findByFormulationIdAndDate(formulationId, date)
+        metrics.recordTransaction("update");
+        metrics.record(Stage.VALIDATE, () ->
+                support.validateRequest(request.getFormulationName(), request.getQuantity(), request.getTargetCpValue()));
+        FeedResponse existingResponse = repository.findWithIngredientsByFormulationIdAndDate(formulationId, support.parseDate(date))
                 .orElseThrow(() -> new InvalidInputException("Feed formulation not found"));
+        FormulationResult formulation = metrics.record(Stage.SOLVE, () ->
+                support.solve(request.getQuantity(), request.getTargetCpValue(), request.getSolverMode()));
 
-        // Update existing response fields
+        // Update existing response fields and the ingredient values that changed
         existingResponse.setFormulationName(request.getFormulationName());
         existingResponse.setQuantity(request.getQuantity());
         existingResponse.setTargetCpValue(request.getTargetCpValue());
-        return support.mapToDTO(repository.save(existingResponse));
+        IngredientChanges changes = metrics.record(Stage.INGREDIENTS, () -> support.reapplyFormulation(existingResponse, formulation));
+        log.info("Feed formulation {} re-solved: {} ingredients updated, {} added, {} removed.", formulationId,
+                changes.updated().size(), changes.added().size(), changes.removed().size());
+
+        FeedResponseDTO responseDTO = mapToDTO(saveAndFlush(existingResponse), formulation.getIngredientDTOs());
+        feedResponseCache.putAfterCommit(responseDTO);
+        return responseDTO;
+    }
+
+    /**
+     * Saves and flushes a formulation, reporting a taken name as invalid input.
+     * Optimistic lock failures propagate as {@link org.springframework.orm.ObjectOptimisticLockingFailureException}.
+     */
+    private FeedResponse saveAndFlush(FeedResponse response) {
+        try {
+            return repository.saveAndFlush(response);
+        } catch (DataIntegrityViolationException e) {
+            if (support.isDuplicateFormulationName(e)) {
+                throw new InvalidInputException("Formulation name must be unique.");
+            }
+            throw e;
+        }
     }
 
     /**
@@ -127,12 +819,29 @@ public class FeedFormulationServiceImpl implements FeedFormulationService {
      * @param formulationId The unique ID of the feed formulation.
      * @param date The date of the feed formulation.
      * @throws InvalidInputException if the feed response to delete is not found.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the formulation was changed concurrently.
      */
+    @Transactional
     @Override
     public void deleteFeedResponse(String formulationId, String date) {
         log.info("Deleting feed formulation with ID: {} and date: {}", formulationId, date);
-        FeedResponse response = repository.findByFormulationIdAndDate(formulationId, date)
+        metrics.recordTransaction("delete");
+        LocalDate day = support.parseDate(date);
+        FeedResponse response = repository.findWithIngredientsByFormulationIdAndDate(formulationId, day)
                 .orElseThrow(() -> new InvalidInputException("Feed formulation not found"));
         repository.delete(response);
+        // Flush so that a concurrent update or delete is reported as a conflict by this call
+        repository.flush();
+        feedResponseCache.evictAfterCommit(formulationId, day);
+    }
+
+    /**
+     * Retrieves the statistics of the in-process caches.
+     *
+     * @return One CacheStatsDTO per cache.
+     */
+    @Override
+    public List<CacheStatsDTO> getCacheStats() {
+        return List.of(formulationResultCache.stats(), feedResponseCache.stats());
     }
 }
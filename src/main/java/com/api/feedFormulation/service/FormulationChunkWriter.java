@@ -0,0 +1,135 @@
+package com.api.feedFormulation.service;
+
+import com.api.feedFormulation.metrics.FeedFormulationMetrics;
+import com.api.feedFormulation.model.FeedResponse;
+import com.api.feedFormulation.model.Ingredient;
+import com.api.feedFormulation.repository.FeedFormulationRepository;
+import com.api.feedFormulation.utils.FeedFormulationSupport;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Saves new formulations in chunks, one transaction per chunk, for the bulk, import and write-behind paths.
+ * When a chunk fails to save, its formulations are saved again one at a time so that only the bad ones
+ * are rejected. Every formulation of a chunk gets exactly one outcome.
+ */
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class FormulationChunkWriter {
+
+    private final FeedFormulationRepository repository;
+    private final FeedFormulationSupport support;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final FeedFormulationMetrics metrics;
+
+    /**
+     * Receives the outcome of each formulation of a chunk, after its transaction has ended.
+     *
+     * @param <T> The type of the items saved.
+     */
+    public interface Outcome<T> {
+
+        void onSaved(T item);
+
+        void onRejected(T item, String message);
+    }
+
+    /**
+     * Saves a chunk of formulations with the configured JDBC batch size.
+     *
+     * @see #save(String, int, List, Function, Outcome)
+     */
+    public <T> void save(String transaction, List<T> items, Function<T, FeedResponse> response, Outcome<T> outcome) {
+        save(transaction, 0, items, response, outcome);
+    }
+
+    /**
+     * Saves a chunk of formulations in one transaction, or one by one if the chunk fails.
+     *
+     * @param transaction   The label of the transaction in the metrics.
+     * @param jdbcBatchSize The JDBC batch size for the inserts, or 0 for the configured size.
+     * @param items         The items to save.
+     * @param response      The formulation entity of an item.
+     * @param outcome       The receiver of the outcome of each item.
+     * @param <T>           The type of the items saved.
+     */
+    public <T> void save(String transaction, int jdbcBatchSize, List<T> items,
+                         Function<T, FeedResponse> response, Outcome<T> outcome) {
+        if (items.isEmpty()) {
+            return;
+        }
+        boolean saved;
+        try {
+            saveInTransaction(transaction, jdbcBatchSize, items.stream().map(response).toList());
+            saved = true;
+        } catch (RuntimeException e) {
+            log.warn("Chunk of {} formulations ({}) could not be saved; retrying individually.", items.size(), transaction, e);
+            saved = false;
+        }
+        if (saved) {
+            items.forEach(outcome::onSaved);
+            return;
+        }
+        for (T item : items) {
+            FeedResponse single = response.apply(item);
+            clearIds(single);
+            String rejection = null;
+            try {
+                saveInTransaction(transaction, jdbcBatchSize, List.of(single));
+            } catch (RuntimeException e) {
+                log.warn("Formulation {} could not be saved.", single.getFormulationName(), e);
+                rejection = e instanceof DataIntegrityViolationException violation && support.isDuplicateFormulationName(violation)
+                        ? "Formulation name must be unique."
+                        : "Formulation could not be saved.";
+            }
+            if (rejection == null) {
+                outcome.onSaved(item);
+            } else {
+                outcome.onRejected(item, rejection);
+            }
+        }
+    }
+
+    private void saveInTransaction(String transaction, int jdbcBatchSize, List<FeedResponse> responses) {
+        transactionTemplate.executeWithoutResult(status -> {
+            metrics.recordTransaction(transaction);
+            // Restored afterwards, as the session may be used for later work
+            Session session = entityManager.unwrap(Session.class);
+            Integer configuredBatchSize = session.getJdbcBatchSize();
+            if (jdbcBatchSize > 0) {
+                session.setJdbcBatchSize(jdbcBatchSize);
+            }
+            try {
+                repository.saveAll(responses);
+                // Through the repository, so that a failed insert is translated to a DataAccessException
+                repository.flush();
+            } finally {
+                session.setJdbcBatchSize(configuredBatchSize);
+                entityManager.clear();
+            }
+        });
+    }
+
+    /**
+     * Ids and versions assigned by a rolled back chunk are discarded so that the retry inserts the entities again.
+     */
+    private static void clearIds(FeedResponse response) {
+        response.setId(null);
+        response.setVersion(0);
+        for (Ingredient ingredient : response.getIngredients()) {
+            ingredient.setId(null);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.api.feedFormulation.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Solves the points of sweeps on a fixed pool of its own, one thread per processor, so that a sweep
+ * never occupies the common fork-join pool. Solved points pass through a small bounded queue to the
+ * thread consuming the stream, which is the only one writing to the client; a slow client therefore
+ * holds back only its own sweep's workers, and closing the stream stops them.
+ */
+@Component
+@Profile("!reactive")
+@Slf4j
+public class FormulationSweepExecutor {
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int QUEUE_CAPACITY = 256;
+    private static final long WORKER_CHECK_MILLIS = 100;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS,
+            Thread.ofPlatform().name("formulation-sweep-", 0).daemon().factory());
+
+    /**
+     * Solves the given number of points in parallel once the returned stream is consumed.
+     *
+     * @param points The number of points.
+     * @param solver Solves the point with the given index.
+     * @param <T>    The type of the results.
+     * @return A sequential stream of the results in completion order; closing it stops the workers.
+     */
+    public <T> Stream<T> solve(int points, IntFunction<T> solver) {
+        Sweep<T> sweep = new Sweep<>(points, solver);
+        return StreamSupport.stream(Spliterators.spliterator(sweep, points, Spliterator.NONNULL), false)
+                .onClose(sweep::cancel);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * One running sweep. The workers are started by the first read so that a stream that is never
+     * consumed holds no threads.
+     */
+    private final class Sweep<T> implements Iterator<T> {
+
+        private final int points;
+        private final IntFunction<T> solver;
+        private final AtomicInteger nextPoint = new AtomicInteger();
+        private final BlockingQueue<T> results = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final List<Future<?>> workers = new ArrayList<>();
+        private int taken;
+
+        private Sweep(int points, IntFunction<T> solver) {
+            this.points = points;
+            this.solver = solver;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return taken < points;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (workers.isEmpty()) {
+                start();
+            }
+            taken++;
+            try {
+                while (true) {
+                    T result = results.poll(WORKER_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                    if (result != null) {
+                        return result;
+                    }
+                    // A failed worker leaves points unsolved, which would otherwise be waited for forever
+                    for (Future<?> worker : workers) {
+                        if (worker.state() == Future.State.FAILED) {
+                            cancel();
+                            throw new IllegalStateException("Sweep point could not be solved.", worker.exceptionNow());
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new IllegalStateException("Sweep was interrupted.", e);
+            }
+        }
+
+        private void start() {
+            for (int i = 0; i < Math.min(THREADS, points); i++) {
+                workers.add(executor.submit(() -> {
+                    int point;
+                    while ((point = nextPoint.getAndIncrement()) < points) {
+                        results.put(solver.apply(point));
+                    }
+                    return null;
+                }));
+            }
+        }
+
+        private void cancel() {
+            if (taken < points) {
+                log.info("Sweep stopped after {} of {} points.", taken, points);
+            }
+            workers.forEach(worker -> worker.cancel(true));
+        }
+    }
+}
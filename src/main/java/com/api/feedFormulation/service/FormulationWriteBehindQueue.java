@@ -0,0 +1,255 @@
+package com.api.feedFormulation.service;
+
+import com.api.feedFormulation.cache.FeedResponseCache;
+import com.api.feedFormulation.dto.FeedResponseDTO;
+import com.api.feedFormulation.dto.PersistenceStatusDTO;
+import com.api.feedFormulation.exception.InvalidInputException;
+import com.api.feedFormulation.exception.ServiceUnavailableException;
+import com.api.feedFormulation.metrics.FeedFormulationMetrics;
+import com.api.feedFormulation.model.FeedResponse;
+import com.api.feedFormulation.repository.FeedFormulationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded write-behind queue for formulations created with POST ?async=true.
+ * A single writer thread drains the queue and saves the formulations in batches, one transaction
+ * per batch. When the queue is full, callers wait up to the offer timeout and are then turned away
+ * with a 503 so that the backlog cannot grow without limit. The outcome of every queued formulation
+ * is kept for an hour and served by the status endpoint; a name that is already saved is reported
+ * there as failed, as the unique constraint rejects it only when the writer saves it.
+ */
+@Component
+@Profile("!reactive")
+@Slf4j
+public class FormulationWriteBehindQueue implements SmartLifecycle {
+
+    private static final Duration STATUS_RETENTION = Duration.ofHours(1);
+
+    private final FeedFormulationRepository repository;
+    private final FormulationChunkWriter chunkWriter;
+    private final FeedResponseCache feedResponseCache;
+    private final FeedFormulationMetrics metrics;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long offerTimeoutNanos;
+    private final Cache<String, PersistenceStatusDTO> statuses;
+    private final Set<String> pendingNames = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public FormulationWriteBehindQueue(FeedFormulationRepository repository,
+                                       FormulationChunkWriter chunkWriter,
+                                       FeedResponseCache feedResponseCache,
+                                       FeedFormulationMetrics metrics,
+                                       @Value("${feedFormulation.writeBehind.capacity}") int capacity,
+                                       @Value("${feedFormulation.writeBehind.batchSize}") int batchSize,
+                                       @Value("${feedFormulation.writeBehind.maxDelay}") Duration maxDelay,
+                                       @Value("${feedFormulation.writeBehind.offerTimeout}") Duration offerTimeout) {
+        this.repository = repository;
+        this.chunkWriter = chunkWriter;
+        this.feedResponseCache = feedResponseCache;
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(capacity * 10L)
+                .expireAfterWrite(STATUS_RETENTION)
+                .build();
+        metrics.monitorWriteBehindQueue(queue);
+    }
+
+    private record Pending(FeedResponse response, FeedResponseDTO formulation) {
+    }
+
+    /**
+     * Queues a formulation for saving, waiting for space up to the offer timeout.
+     *
+     * @param response    The formulation entity with its ingredients.
+     * @param formulation The formulation as returned to the caller, cached once saved.
+     * @throws InvalidInputException       if a formulation with the same name is already queued.
+     * @throws ServiceUnavailableException if the queue is stopped or stays full.
+     */
+    public void enqueue(FeedResponse response, FeedResponseDTO formulation) {
+        if (!running) {
+            throw new ServiceUnavailableException("Formulations cannot be accepted for asynchronous saving right now.");
+        }
+        if (!pendingNames.add(response.getFormulationName())) {
+            throw new InvalidInputException("Formulation name must be unique.");
+        }
+        statuses.put(response.getFormulationId(), status(response, PersistenceStatusDTO.Status.PENDING, null));
+        boolean accepted;
+        try {
+            accepted = queue.offer(new Pending(response, formulation), offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            pendingNames.remove(response.getFormulationName());
+            statuses.invalidate(response.getFormulationId());
+            throw new ServiceUnavailableException("Too many formulations are waiting to be saved; retry shortly.");
+        }
+    }
+
+    /**
+     * Checks whether a formulation with the given name is waiting to be saved.
+     *
+     * @param formulationName The name of the formulation.
+     * @return True if the name is queued.
+     */
+    public boolean isPending(String formulationName) {
+        return pendingNames.contains(formulationName);
+    }
+
+    /**
+     * Reports whether a formulation is queued, saved or failed. Formulations that were not
+     * queued recently are looked up in the database.
+     *
+     * @param formulationId The ID of the formulation.
+     * @param date          The date of the formulation.
+     * @return The status of the formulation.
+     */
+    public PersistenceStatusDTO getStatus(String formulationId, String date) {
+        PersistenceStatusDTO status = statuses.getIfPresent(formulationId);
+        if (status != null && status.getDate().equals(date)) {
+            return status;
+        }
+        return PersistenceStatusDTO.builder()
+                .formulationId(formulationId)
+                .date(date)
+                .status(exists(formulationId, date)
+                        ? PersistenceStatusDTO.Status.PERSISTED
+                        : PersistenceStatusDTO.Status.NOT_FOUND)
+                .build();
+    }
+
+    private boolean exists(String formulationId, String date) {
+        try {
+            return repository.existsByFormulationIdAndDate(formulationId, LocalDate.parse(date));
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "formulation-write-behind");
+        writer.start();
+    }
+
+    /**
+     * Stops accepting formulations and waits for the writer to save everything already queued.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Write-behind queue stopped.");
+    }
+
+    /**
+     * Starts before and stops after the web server, so no request can reach a stopped queue
+     * and everything accepted is saved before the connection pool closes.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(maxDelayNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Wait briefly for the batch to fill so that bursts are saved together
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                save(batch);
+            } catch (InterruptedException e) {
+                log.warn("Write-behind writer interrupted; {} formulations remain queued.", queue.size());
+                return;
+            } catch (RuntimeException e) {
+                log.error("Write-behind batch of {} formulations failed.", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void save(List<Pending> batch) {
+        metrics.recordWriteBehindBatch(batch.size());
+        chunkWriter.save("write_behind", batch, Pending::response, new FormulationChunkWriter.Outcome<>() {
+            @Override
+            public void onSaved(Pending pending) {
+                feedResponseCache.putAfterCommit(pending.formulation());
+                complete(pending, PersistenceStatusDTO.Status.PERSISTED, null);
+            }
+
+            @Override
+            public void onRejected(Pending pending, String message) {
+                metrics.recordWriteBehindFailed();
+                complete(pending, PersistenceStatusDTO.Status.FAILED, message);
+            }
+        });
+    }
+
+    private void complete(Pending pending, PersistenceStatusDTO.Status status, String message) {
+        statuses.put(pending.response().getFormulationId(), status(pending.response(), status, message));
+        pendingNames.remove(pending.response().getFormulationName());
+    }
+
+    private static PersistenceStatusDTO status(FeedResponse response, PersistenceStatusDTO.Status status, String message) {
+        return PersistenceStatusDTO.builder()
+                .formulationId(response.getFormulationId())
+                .date(response.getDate().toString())
+                .status(status)
+                .message(message)
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.api.feedFormulation.service;
+
+import com.api.feedFormulation.utils.FeedFormulationSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Keeps the ingredient table used by the solvers in step with the active catalog in the database.
+ * The catalog is loaded before the web server starts and then polled, so a change made through
+ * any instance reaches every instance within the reload interval without a restart. Only the
+ * version is read on each poll; the table itself is read once per new version.
+ */
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class IngredientCatalogReloader implements SmartInitializingSingleton {
+
+    private final IngredientCatalogService catalogService;
+    private final FeedFormulationSupport support;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            support.publishIngredientTable(catalogService.loadActive());
+        } catch (DataAccessException e) {
+            log.warn("Ingredient catalog could not be loaded; using the configured ingredients until the next reload.", e);
+        }
+    }
+
+    /**
+     * Publishes the active catalog if it changed since the last reload.
+     */
+    @Scheduled(fixedDelayString = "${feedFormulation.catalog.reloadInterval}",
+            initialDelayString = "${feedFormulation.catalog.reloadInterval}")
+    public void reload() {
+        try {
+            Optional<Long> version = catalogService.findActiveVersion();
+            if (version.isEmpty()) {
+                support.publishIngredientTable(catalogService.loadActive());
+            } else if (version.get() != support.getIngredientTable().version()) {
+                support.publishIngredientTable(catalogService.get(version.get()));
+            }
+        } catch (DataAccessException | IllegalStateException e) {
+            log.warn("Ingredient catalog reload failed; keeping version {}.", support.getIngredientTable().version(), e);
+        }
+    }
+}
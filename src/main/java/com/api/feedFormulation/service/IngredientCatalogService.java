@@ -0,0 +1,294 @@
+package com.api.feedFormulation.service;
+
+import com.api.feedFormulation.dto.CatalogIngredientDTO;
+import com.api.feedFormulation.dto.IngredientCatalogDTO;
+import com.api.feedFormulation.exception.InvalidInputException;
+import com.api.feedFormulation.model.CatalogIngredient;
+import com.api.feedFormulation.model.IngredientCatalogHead;
+import com.api.feedFormulation.repository.IngredientCatalogHeadRepository;
+import com.api.feedFormulation.repository.IngredientCatalogRepository;
+import com.api.feedFormulation.utils.Constants;
+import com.api.feedFormulation.utils.FeedFormulationSupport;
+import com.api.feedFormulation.utils.IngredientCatalog;
+import com.api.feedFormulation.utils.IngredientTable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingredient catalog kept in the ingredient_catalog table. Every table version is written once,
+ * in a transaction of its own when it is activated, and then served from memory; tables are
+ * immutable, so a version never needs to be read twice. The version formulations are solved with is recorded in the
+ * ingredient_catalog_head table; changing it publishes the new table to this instance at once
+ * and to other instances on their next reload.
+ */
+@Service
+@Profile("!reactive")
+@Slf4j
+public class IngredientCatalogService implements IngredientCatalog {
+
+    private final IngredientCatalogRepository repository;
+    private final IngredientCatalogHeadRepository headRepository;
+    private final FeedFormulationSupport support;
+    private final TransactionTemplate requiresNew;
+    private final Map<Long, IngredientTable> tables = new ConcurrentHashMap<>();
+
+    public IngredientCatalogService(IngredientCatalogRepository repository,
+                                    IngredientCatalogHeadRepository headRepository,
+                                    FeedFormulationSupport support,
+                                    PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.headRepository = headRepository;
+        this.support = support;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @param version The version fingerprint of a table.
+     * @return True if the table was stored or read by this instance.
+     */
+    @Override
+    public boolean isStored(long version) {
+        return tables.containsKey(version);
+    }
+
+    /**
+     * Stores the table unless it is already stored. The write commits on its own so that
+     * formulations saved by other transactions can refer to it straight away; a concurrent
+     * writer of the same version is detected by the unique constraint.
+     */
+    private void register(IngredientTable table) {
+        if (tables.containsKey(table.version())) {
+            return;
+        }
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                if (!repository.existsByCatalogVersion(table.version())) {
+                    repository.saveAll(toRows(table));
+                    log.info("Stored ingredient table version {} in the catalog.", table.version());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("Ingredient table version {} was stored concurrently.", table.version());
+        }
+        tables.putIfAbsent(table.version(), table);
+    }
+
+    /**
+     * @param version The version fingerprint of a stored table.
+     * @return The ingredient table with that version.
+     * @throws IllegalStateException if no table with that version is stored.
+     */
+    @Override
+    public IngredientTable get(long version) {
+        IngredientTable table = tables.get(version);
+        if (table != null) {
+            return table;
+        }
+        // Loaded outside the map so that no lock is held during the query
+        List<CatalogIngredient> rows = repository.findByCatalogVersionOrderByPosition(version);
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("Ingredient table version " + version + " is not in the catalog.");
+        }
+        IngredientTable loaded = toTable(rows);
+        if (loaded.version() != version) {
+            log.warn("Ingredient table version {} reads back with fingerprint {}.", version, loaded.version());
+        }
+        IngredientTable existing = tables.putIfAbsent(version, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * @return The version recorded as active, or empty if none has been recorded yet.
+     */
+    public Optional<Long> findActiveVersion() {
+        return headRepository.findById(IngredientCatalogHead.ID).map(IngredientCatalogHead::getCatalogVersion);
+    }
+
+    /**
+     * Loads the active table. When no version has been recorded yet, the table configured in
+     * {@link Constants} is stored and activated, so a new database starts from the configured values.
+     *
+     * @return The active ingredient table.
+     */
+    public IngredientTable loadActive() {
+        Optional<Long> version = findActiveVersion();
+        if (version.isPresent()) {
+            return get(version.get());
+        }
+        try {
+            return activate(IngredientTable.fromConstants());
+        } catch (DataIntegrityViolationException e) {
+            // Another instance activated a catalog first
+            return get(findActiveVersion().orElseThrow(() -> e));
+        }
+    }
+
+    /**
+     * Returns the ingredient catalog formulations are currently solved with.
+     *
+     * @return The active catalog as a DTO.
+     */
+    public IngredientCatalogDTO getCatalog() {
+        IngredientTable table = support.getIngredientTable();
+        List<CatalogIngredientDTO> ingredients = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            ingredients.add(CatalogIngredientDTO.builder()
+                    .name(table.name(i))
+                    .category(table.category(i))
+                    .crudeProtein(table.crudeProtein(i))
+                    .ratio(table.ratio(i))
+                    .cost(table.cost(i))
+                    .energy(table.energy(i))
+                    .calcium(table.calcium(i))
+                    .maxInclusion(table.maxInclusion(i))
+                    .build());
+        }
+        return IngredientCatalogDTO.builder()
+                .version(table.version())
+                .ingredients(ingredients)
+                .build();
+    }
+
+    /**
+     * Replaces the ingredient catalog. Formulations created afterwards are solved with the new
+     * values; stored formulations keep the values they were solved with.
+     *
+     * @param ingredients The ingredients of the new catalog in reporting order.
+     * @return The new active catalog.
+     * @throws InvalidInputException if the ingredients do not make a solvable catalog.
+     */
+    public IngredientCatalogDTO updateCatalog(List<CatalogIngredientDTO> ingredients) {
+        IngredientTable table = validateCatalog(ingredients);
+        activate(table);
+        support.publishIngredientTable(table);
+        log.info("Ingredient catalog version {} activated.", table.version());
+        return getCatalog();
+    }
+
+    private IngredientTable activate(IngredientTable table) {
+        register(table);
+        requiresNew.executeWithoutResult(status -> headRepository.save(IngredientCatalogHead.builder()
+                .id(IngredientCatalogHead.ID)
+                .catalogVersion(table.version())
+                .activatedAt(Instant.now())
+                .build()));
+        return table;
+    }
+
+    private static IngredientTable validateCatalog(List<CatalogIngredientDTO> ingredients) {
+        if (ingredients == null || ingredients.isEmpty()) {
+            throw new InvalidInputException("The ingredient catalog must contain at least one ingredient.");
+        }
+        if (ingredients.size() > Constants.MAX_CATALOG_SIZE) {
+            throw new InvalidInputException("The ingredient catalog cannot have more than "
+                    + Constants.MAX_CATALOG_SIZE + " ingredients.");
+        }
+        Set<String> categories = Set.of(Constants.PROTEINS, Constants.CARBOHYDRATES, Constants.MINERALS,
+                Constants.VITAMINS, Constants.OTHERS);
+        Set<String> names = new HashSet<>();
+        int size = ingredients.size();
+        String[] name = new String[size];
+        String[] category = new String[size];
+        double[] crudeProtein = new double[size];
+        double[] ratio = new double[size];
+        double[] cost = new double[size];
+        double[] energy = new double[size];
+        double[] calcium = new double[size];
+        double[] maxInclusion = new double[size];
+        for (int i = 0; i < size; i++) {
+            CatalogIngredientDTO ingredient = ingredients.get(i);
+            if (!names.add(ingredient.getName())) {
+                throw new InvalidInputException("Ingredient names must be unique: " + ingredient.getName() + ".");
+            }
+            if (!categories.contains(ingredient.getCategory())) {
+                throw new InvalidInputException("Unknown category " + ingredient.getCategory() + " for " + ingredient.getName() + ".");
+            }
+            name[i] = ingredient.getName();
+            category[i] = ingredient.getCategory();
+            crudeProtein[i] = ingredient.getCrudeProtein();
+            ratio[i] = ingredient.getRatio();
+            cost[i] = ingredient.getCost();
+            energy[i] = ingredient.getEnergy();
+            calcium[i] = ingredient.getCalcium();
+            maxInclusion[i] = ingredient.getMaxInclusion();
+        }
+        IngredientTable table = IngredientTable.of(name, category, crudeProtein, ratio, cost, energy, calcium, maxInclusion);
+
+        // The Pearson square needs both groups to mix and some of the feed left for them
+        double proteinRatio = 0;
+        double basalRatio = 0;
+        double fixedRatio = 0;
+        for (int i = 0; i < size; i++) {
+            switch (table.group(i)) {
+                case IngredientTable.PROTEIN -> proteinRatio += ratio[i];
+                case IngredientTable.BASAL -> basalRatio += ratio[i];
+                default -> fixedRatio += ratio[i];
+            }
+        }
+        if (proteinRatio <= 0 || basalRatio <= 0) {
+            throw new InvalidInputException("The catalog needs protein and carbohydrate ingredients with a positive ratio.");
+        }
+        if (fixedRatio >= 1) {
+            throw new InvalidInputException("Minerals, vitamins and other ingredients must take less than the whole feed.");
+        }
+        return table;
+    }
+
+    private static List<CatalogIngredient> toRows(IngredientTable table) {
+        List<CatalogIngredient> rows = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            rows.add(CatalogIngredient.builder()
+                    .catalogVersion(table.version())
+                    .position(i)
+                    .name(table.name(i))
+                    .category(table.category(i))
+                    .crudeProtein(table.crudeProtein(i))
+                    .ratio(table.ratio(i))
+                    .cost(table.cost(i))
+                    .energy(table.energy(i))
+                    .calcium(table.calcium(i))
+                    .maxInclusion(table.maxInclusion(i))
+                    .build());
+        }
+        return rows;
+    }
+
+    private static IngredientTable toTable(List<CatalogIngredient> rows) {
+        int size = rows.size();
+        String[] names = new String[size];
+        String[] categories = new String[size];
+        double[] crudeProtein = new double[size];
+        double[] ratio = new double[size];
+        double[] cost = new double[size];
+        double[] energy = new double[size];
+        double[] calcium = new double[size];
+        double[] maxInclusion = new double[size];
+        for (int i = 0; i < size; i++) {
+            CatalogIngredient row = rows.get(i);
+            names[i] = row.getName();
+            categories[i] = row.getCategory();
+            crudeProtein[i] = row.getCrudeProtein();
+            ratio[i] = row.getRatio();
+            cost[i] = row.getCost();
+            energy[i] = row.getEnergy();
+            calcium[i] = row.getCalcium();
+            maxInclusion[i] = row.getMaxInclusion();
+        }
+        return IngredientTable.of(names, categories, crudeProtein, ratio, cost, energy, calcium, maxInclusion);
+    }
+}
@@ -0,0 +1,56 @@
+package com.api.feedFormulation.service;
+
+import com.api.feedFormulation.dto.FeedRequestDTO;
+import com.api.feedFormulation.dto.FeedResponseDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link FeedFormulationService}, active with the "reactive" profile.
+ * This interface defines the feed formulation operations served by the WebFlux controller.
+ */
+public interface ReactiveFeedFormulationService {
+
+    /**
+     * Calculate and create a feed formulation based on the provided request details.
+     *
+     * @param request The FeedRequestDTO containing the details for the formulation.
+     * @return The created FeedResponseDTO with the formulation details.
+     */
+    Mono<FeedResponseDTO> calculateFeed(FeedRequestDTO request);
+
+    /**
+     * Retrieve a feed formulation by its formulation ID and date.
+     *
+     * @param formulationId The ID of the formulation.
+     * @param date The date of the formulation.
+     * @return The retrieved FeedResponseDTO with the formulation details.
+     */
+    Mono<FeedResponseDTO> getFeedResponseByFormulationIdAndDate(String formulationId, String date);
+
+    /**
+     * Stream all feed formulations as they are read from the database.
+     *
+     * @return The FeedResponseDTOs.
+     */
+    Flux<FeedResponseDTO> getAllFeedFormulations();
+
+    /**
+     * Update an existing feed formulation identified by its formulation ID and date.
+     *
+     * @param formulationId The ID of the formulation to be updated.
+     * @param date The date of the formulation to be updated.
+     * @param request The FeedRequestDTO containing the new details for the formulation.
+     * @return The updated FeedResponseDTO with the new formulation details.
+     */
+    Mono<FeedResponseDTO> updateFeedResponse(String formulationId, String date, FeedRequestDTO request);
+
+    /**
+     * Delete a feed formulation identified by its formulation ID and date.
+     *
+     * @param formulationId The ID of the formulation to be deleted.
+     * @param date The date of the formulation to be deleted.
+     * @return Completes when the formulation is deleted.
+     */
+    Mono<Void> deleteFeedResponse(String formulationId, String date);
+}
@@ -0,0 +1,155 @@
+package com.api.feedFormulation.service;
+
+import com.api.feedFormulation.dto.FeedRequestDTO;
+import com.api.feedFormulation.dto.FeedResponseDTO;
+import com.api.feedFormulation.exception.InvalidInputException;
+import com.api.feedFormulation.model.FeedResponse;
+import com.api.feedFormulation.model.Ingredient;
+import com.api.feedFormulation.repository.ReactiveFeedFormulationRepository;
+import com.api.feedFormulation.utils.FeedFormulationSupport;
+import com.api.feedFormulation.utils.FormulationResult;
+import com.api.feedFormulation.utils.IngredientChanges;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * R2DBC implementation of {@link ReactiveFeedFormulationService}.
+ * Validation and solving are CPU-only and run on the calling event-loop thread; all database
+ * access is non-blocking, so no thread waits on I/O.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveFeedFormulationServiceImpl implements ReactiveFeedFormulationService {
+
+    private final ReactiveFeedFormulationRepository repository;
+    private final FeedFormulationSupport support;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Calculates feed formulation based on the given request.
+     * Validates the request, generates ingredients, and saves the feed response in one transaction.
+     *
+     * @param request The request containing quantity and target crude protein value.
+     * @return The saved feed response as a DTO.
+     */
+    @Override
+    public Mono<FeedResponseDTO> calculateFeed(FeedRequestDTO request) {
+        return Mono.fromCallable(() -> {
+                    log.info("Starting feed formulation calculation.");
+                    support.validateRequest(request.getFormulationName(), request.getQuantity(), request.getTargetCpValue());
+                    return support.solve(request.getQuantity(), request.getTargetCpValue(), request.getSolverMode());
+                })
+                .flatMap(formulation -> save(request, formulation))
+                // The unique constraint decides, so concurrent creates with one name cannot both succeed
+                .onErrorMap(DataIntegrityViolationException.class, e -> support.isDuplicateFormulationName(e)
+                        ? new InvalidInputException("Formulation name must be unique.")
+                        : e)
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(response -> log.info("Feed formulation calculation completed."));
+    }
+
+    private Mono<FeedResponseDTO> save(FeedRequestDTO request, FormulationResult formulation) {
+        List<Ingredient> ingredients = support.createIngredients(formulation);
+        FeedResponse response = FeedResponse.builder()
+                .formulationId(support.generateGuid())
+                .date(LocalDate.now())
+                .formulationName(request.getFormulationName())
+                .quantity(request.getQuantity())
+                .targetCpValue(request.getTargetCpValue())
+                .ingredients(ingredients)
+                .build();
+        support.setFeedResponseToIngredients(response, ingredients);
+        return repository.insert(response)
+                .map(saved -> support.mapToDTO(saved, formulation.getIngredientDTOs()));
+    }
+
+    /**
+     * Retrieves a feed response by formulation ID and date.
+     *
+     * @param formulationId The unique ID of the feed formulation.
+     * @param date The date of the feed formulation.
+     * @return The feed response as a DTO, or an InvalidInputException error if none is found.
+     */
+    @Override
+    public Mono<FeedResponseDTO> getFeedResponseByFormulationIdAndDate(String formulationId, String date) {
+        log.info("Fetching feed formulation with ID: {} and date: {}", formulationId, date);
+        return Mono.fromCallable(() -> support.parseDate(date))
+                .flatMap(day -> repository.findWithIngredientsByFormulationIdAndDate(formulationId, day))
+                .switchIfEmpty(Mono.error(() -> new InvalidInputException("Feed formulation not found")))
+                .map(support::mapToDTO);
+    }
+
+    /**
+     * Streams all feed formulations in id order as they are read.
+     *
+     * @return The feed formulations as DTOs.
+     */
+    @Override
+    public Flux<FeedResponseDTO> getAllFeedFormulations() {
+        log.info("Streaming all feed formulations.");
+        return repository.findAllWithIngredients()
+                .map(support::mapToDTO);
+    }
+
+    /**
+     * Updates an existing feed response based on formulation ID and date and re-solves its ingredients,
+     * writing only the ingredient values that changed.
+     *
+     * @param formulationId The unique ID of the feed formulation.
+     * @param date The date of the feed formulation.
+     * @param request The request containing updated quantity and target crude protein value.
+     * @return The updated feed response as a DTO, or an InvalidInputException error if none is found
+     * or the new target cannot be reached.
+     */
+    @Override
+    public Mono<FeedResponseDTO> updateFeedResponse(String formulationId, String date, FeedRequestDTO request) {
+        log.info("Updating feed formulation with ID: {} and date: {}", formulationId, date);
+        return Mono.fromCallable(() -> {
+                    support.validateRequest(request.getFormulationName(), request.getQuantity(), request.getTargetCpValue());
+                    return support.solve(request.getQuantity(), request.getTargetCpValue(), request.getSolverMode());
+                })
+                .flatMap(formulation -> repository.findWithIngredientsByFormulationIdAndDate(formulationId, support.parseDate(date))
+                        .switchIfEmpty(Mono.error(() -> new InvalidInputException("Feed formulation not found")))
+                        .flatMap(existing -> {
+                            existing.setFormulationName(request.getFormulationName());
+                            existing.setQuantity(request.getQuantity());
+                            existing.setTargetCpValue(request.getTargetCpValue());
+                            IngredientChanges changes = support.reapplyFormulation(existing, formulation);
+                            return repository.update(existing, changes)
+                                    .thenReturn(support.mapToDTO(existing, formulation.getIngredientDTOs()));
+                        }))
+                .onErrorMap(DataIntegrityViolationException.class, e -> support.isDuplicateFormulationName(e)
+                        ? new InvalidInputException("Formulation name must be unique.")
+                        : e)
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Deletes a feed response based on formulation ID and date.
+     *
+     * @param formulationId The unique ID of the feed formulation.
+     * @param date The date of the feed formulation.
+     * @return Completes when deleted, an InvalidInputException error if none is found, or an
+     * OptimisticLockingFailureException error if it was changed or deleted concurrently.
+     */
+    @Override
+    public Mono<Void> deleteFeedResponse(String formulationId, String date) {
+        log.info("Deleting feed formulation with ID: {} and date: {}", formulationId, date);
+        return Mono.fromCallable(() -> support.parseDate(date))
+                .flatMap(day -> repository.findWithIngredientsByFormulationIdAndDate(formulationId, day))
+                .switchIfEmpty(Mono.error(() -> new InvalidInputException("Feed formulation not found")))
+                .flatMap(repository::delete)
+                .as(transactionalOperator::transactional);
+    }
+}
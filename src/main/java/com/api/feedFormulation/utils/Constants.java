@@ -13,6 +13,26 @@ public class Constants {
     public static final String VITAMINS = "Vitamins";
     public static final String OTHERS = "Others";
 
+    // Pagination values
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int STREAM_PAGE_SIZE = 200;
+
+    // Bulk values
+    public static final int MAX_BULK_SIZE = 5000;
+    public static final int BULK_CHUNK_SIZE = 500;
+    public static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    // Import values; rejections listed in the report, and JDBC batch size while saving an import chunk
+    public static final int MAX_IMPORT_REJECTIONS = 1000;
+    public static final int IMPORT_JDBC_BATCH_SIZE = 1000;
+
+    // Sweep values
+    public static final int MAX_SWEEP_POINTS = 20000;
+
+    // Catalog values; packed quantities of the largest catalog must fit the 1024 byte column
+    public static final int MAX_CATALOG_SIZE = 128;
+
     // Calculation values
     public static double CALC_003_VALUE;
     public static double CALC_01_VALUE;
@@ -33,6 +53,16 @@ public class Constants {
     public static double CRUDE_CAS_VALUE;
     public static double CRUDE_CON_VALUE;
 
+    // Least-cost values, one per ingredient in IngredientTable order
+    public static double[] INGREDIENT_COSTS;
+    public static double[] INGREDIENT_ENERGY;
+    public static double[] INGREDIENT_CALCIUM;
+    public static double[] INGREDIENT_MAX_INCLUSION;
+
+    // Least-cost ration requirements
+    public static double MIN_ENERGY_VALUE;
+    public static double MIN_CALCIUM_VALUE;
+
     @Value("${feedFormulation.calc003Value}")
     public void setCalc003Value(double calc003Value) {
         CALC_003_VALUE = calc003Value;
@@ -112,4 +142,34 @@ public class Constants {
     public void setCrudeConValue(double crudeConValue) {
         CRUDE_CON_VALUE = crudeConValue;
     }
+
+    @Value("${feedFormulation.ingredientCosts}")
+    public void setIngredientCosts(double[] ingredientCosts) {
+        INGREDIENT_COSTS = ingredientCosts;
+    }
+
+    @Value("${feedFormulation.ingredientEnergy}")
+    public void setIngredientEnergy(double[] ingredientEnergy) {
+        INGREDIENT_ENERGY = ingredientEnergy;
+    }
+
+    @Value("${feedFormulation.ingredientCalcium}")
+    public void setIngredientCalcium(double[] ingredientCalcium) {
+        INGREDIENT_CALCIUM = ingredientCalcium;
+    }
+
+    @Value("${feedFormulation.ingredientMaxInclusion}")
+    public void setIngredientMaxInclusion(double[] ingredientMaxInclusion) {
+        INGREDIENT_MAX_INCLUSION = ingredientMaxInclusion;
+    }
+
+    @Value("${feedFormulation.minEnergyValue}")
+    public void setMinEnergyValue(double minEnergyValue) {
+        MIN_ENERGY_VALUE = minEnergyValue;
+    }
+
+    @Value("${feedFormulation.minCalciumValue}")
+    public void setMinCalciumValue(double minCalciumValue) {
+        MIN_CALCIUM_VALUE = minCalciumValue;
+    }
 }
@@ -1,21 +1,53 @@
 package com.api.feedFormulation.utils;
 
+import com.api.feedFormulation.cache.FormulationResultCache;
 import com.api.feedFormulation.dto.FeedResponseDTO;
 import com.api.feedFormulation.dto.IngredientDTO;
+import com.api.feedFormulation.dto.SolverMode;
 import com.api.feedFormulation.exception.InvalidInputException;
+import com.api.feedFormulation.metrics.FeedFormulationMetrics;
 import com.api.feedFormulation.model.FeedResponse;
 import com.api.feedFormulation.model.Ingredient;
+import com.api.feedFormulation.model.StorageFormat;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class FeedFormulationSupport {
 
+    private final LeastCostSolver leastCostSolver;
+    private final FormulationResultCache formulationResultCache;
+    private final FormulationIdGenerator formulationIdGenerator;
+    private final FeedFormulationMetrics metrics;
+    private final ObjectProvider<IngredientCatalog> ingredientCatalog;
+
+    @Value("${feedFormulation.storageFormat:ROWS}")
+    private StorageFormat storageFormat = StorageFormat.ROWS;
+
+    /**
+     * Immutable snapshot read by every solve without locking; replaced as a whole when the catalog changes.
+     */
+    private final AtomicReference<IngredientTable> ingredientTable = new AtomicReference<>();
+
     /**
      * Validates the feed request to ensure it contains valid data.
      *
@@ -32,54 +64,256 @@ public class FeedFormulationSupport {
         }
     }
 
+    /**
+     * Parses the date of a formulation as given in a path or file, in ISO yyyy-MM-dd format.
+     *
+     * @param date The date text.
+     * @return The date.
+     * @throws InvalidInputException if the text is not a valid date.
+     */
+    public LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date == null ? "" : date);
+        } catch (DateTimeParseException e) {
+            throw new InvalidInputException("Date must be in yyyy-MM-dd format.");
+        }
+    }
+
+    /**
+     * Checks whether a failed write broke the unique constraint on the formulation name.
+     * The constraint name appears in the driver message on both MySQL and H2, over JDBC and R2DBC.
+     *
+     * @param e The failure of the write.
+     * @return True if the formulation name is already taken.
+     */
+    public boolean isDuplicateFormulationName(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(FeedResponse.FORMULATION_NAME_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Generates a unique identifier for the feed formulation.
      *
-     * @return A new UUID string.
+     * @return A new time-ordered 13 character identifier.
      */
     public String generateGuid() {
-        return UUID.randomUUID().toString().substring(0, 5);
+        return formulationIdGenerator.nextId();
+    }
+
+    /**
+     * Solves the ingredient breakdown for the specified quantity and target crude protein value
+     * with the requested solver. Identical inputs are served from the result cache, scaled to the
+     * requested quantity when the cached breakdown was solved for a quantity that rounds to the same key.
+     *
+     * @param quantity      The quantity of the feed.
+     * @param targetCpValue The target crude protein value of the feed.
+     * @param solverMode    The solver to use; null selects the Pearson square.
+     * @return The solved breakdown.
+     * @throws InvalidInputException if the target cannot be reached with the available ingredients.
+     */
+    public FormulationResult solve(double quantity, double targetCpValue, SolverMode solverMode) {
+        IngredientTable table = getIngredientTable();
+        FormulationResult result = formulationResultCache.get(table, quantity, targetCpValue, solverMode,
+                key -> compute(table, quantity, targetCpValue, key.solverMode()));
+        return result.getQuantity() == quantity ? result : result.scaledTo(quantity);
+    }
+
+    private FormulationResult compute(IngredientTable table, double quantity, double targetCpValue, SolverMode solverMode) {
+        FormulationResult result = metrics.recordSolver(solverMode, () -> solveUncached(table, quantity, targetCpValue, solverMode));
+        if (result == null) {
+            throw new InvalidInputException(infeasibleMessage(solverMode));
+        }
+        return result;
+    }
+
+    /**
+     * Solves the ingredient breakdown without the result cache or solver metrics, for callers that
+     * solve many distinct points at once. Safe to call from many threads concurrently.
+     *
+     * @param quantity      The quantity of the feed.
+     * @param targetCpValue The target crude protein value of the feed.
+     * @param solverMode    The solver to use; null selects the Pearson square.
+     * @return The solved breakdown, or null if the target cannot be reached.
+     */
+    public FormulationResult trySolve(double quantity, double targetCpValue, SolverMode solverMode) {
+        return solveUncached(getIngredientTable(), quantity, targetCpValue, solverMode);
+    }
+
+    /**
+     * @param solverMode The solver that found no solution; null selects the Pearson square.
+     * @return The message explaining why no breakdown was found.
+     */
+    public String infeasibleMessage(SolverMode solverMode) {
+        return solverMode == SolverMode.LEAST_COST
+                ? "No ration within the ingredient limits meets the target CP, energy and calcium requirements."
+                : "Target CP value cannot be reached with the available ingredients.";
+    }
+
+    private FormulationResult solveUncached(IngredientTable table, double quantity, double targetCpValue, SolverMode solverMode) {
+        double[] quantities = new double[table.size()];
+        boolean solved = solverMode == SolverMode.LEAST_COST
+                ? leastCostSolver.solve(table, Constants.MIN_ENERGY_VALUE, Constants.MIN_CALCIUM_VALUE,
+                quantity, targetCpValue, quantities)
+                : PearsonSquareSolver.solve(table, quantity, targetCpValue, quantities);
+        return solved ? new FormulationResult(table, quantity, quantities) : null;
     }
 
     /**
-     * Creates a list of ingredients based on the specified quantity.
+     * Creates the list of ingredients for the specified quantity and target crude protein value.
      *
-     * @param quantity The quantity of the feed.
+     * @param quantity      The quantity of the feed.
+     * @param targetCpValue The target crude protein value of the feed.
+     * @param solverMode    The solver to use; null selects the Pearson square.
      * @return A list of ingredients.
+     * @throws InvalidInputException if the target cannot be reached with the available ingredients.
      */
-    public List<Ingredient> createIngredients(double quantity) {
-        return List.of(
-                Ingredient.builder().name("Soya beans").crudeProtein(Constants.CRUDE_SOYA_VALUE)
-                        .quantity(quantity * Constants.CALC_003_VALUE).build(),
-                Ingredient.builder().name("Groundnuts").crudeProtein(Constants.CRUDE_NUTS_VALUE)
-                        .quantity(quantity * Constants.CALC_01_VALUE).build(),
-                Ingredient.builder().name("Blood Meal").crudeProtein(Constants.CRUDE_BLOOD_VALUE)
-                        .quantity(quantity * Constants.CALC_005_VALUE).build(),
-                Ingredient.builder().name("Fish Meal").crudeProtein(Constants.CRUDE_FISH_VALUE)
-                        .quantity(quantity * Constants.CALC_01_VALUE).build(),
-                Ingredient.builder().name("Maize").crudeProtein(Constants.CRUDE_MAIZE_VALUE)
-                        .quantity(quantity * Constants.CALC_02_VALUE).build(),
-                Ingredient.builder().name("Cassava").crudeProtein(Constants.CRUDE_CAS_VALUE)
-                        .quantity(quantity * Constants.CALC_01_VALUE).build(),
-                Ingredient.builder().name("Diphosphate Calcium").crudeProtein(Constants.CRUDE_00_VALUE)
-                        .quantity(quantity * Constants.CALC_002_VALUE).build(),
-                Ingredient.builder().name("Bone Meal").crudeProtein(Constants.CRUDE_00_VALUE)
-                        .quantity(quantity * Constants.CALC_002_VALUE).build(),
-                Ingredient.builder().name("Marine Shell Flour").crudeProtein(Constants.CRUDE_00_VALUE)
-                        .quantity(quantity * Constants.CALC_002_VALUE).build(),
-                Ingredient.builder().name("Salt").crudeProtein(Constants.CRUDE_00_VALUE)
-                        .quantity(quantity * Constants.CALC_0005_VALUE).build(),
-                Ingredient.builder().name("Vitamin C").crudeProtein(Constants.CRUDE_00_VALUE)
-                        .quantity(quantity * Constants.CALC_0005_VALUE).build(),
-                Ingredient.builder().name("Premix").crudeProtein(Constants.CRUDE_00_VALUE)
-                        .quantity(quantity * Constants.CALC_001_VALUE).build(),
-                Ingredient.builder().name("Concentrate").crudeProtein(Constants.CRUDE_CON_VALUE)
-                        .quantity(quantity * Constants.CALC_005_VALUE).build(),
-                Ingredient.builder().name("Palm Oil").crudeProtein(Constants.CRUDE_00_VALUE)
-                        .quantity(quantity * Constants.CALC_002_VALUE).build(),
-                Ingredient.builder().name("Anti-toxin").crudeProtein(Constants.CRUDE_00_VALUE)
-                        .quantity(quantity * Constants.CALC_00005_VALUE).build()
-        );
+    public List<Ingredient> createIngredients(double quantity, double targetCpValue, SolverMode solverMode) {
+        return createIngredients(solve(quantity, targetCpValue, solverMode));
+    }
+
+    /**
+     * Creates new ingredient entities from a solved breakdown.
+     *
+     * @param result The solved breakdown.
+     * @return A list of ingredients.
+     */
+    public List<Ingredient> createIngredients(FormulationResult result) {
+        IngredientTable table = result.getTable();
+        List<Ingredient> ingredients = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            ingredients.add(Ingredient.builder()
+                    .name(table.name(i))
+                    .crudeProtein(table.crudeProtein(i))
+                    .quantity(result.quantity(i))
+                    .build());
+        }
+        return ingredients;
+    }
+
+    /**
+     * Stores a solved breakdown on a new formulation in the configured storage format: as
+     * ingredient rows, or as packed quantities referring to the catalog copy of the ingredient table.
+     * Breakdowns solved against a table that is not stored, such as the configured fallback used
+     * while the catalog cannot be loaded, are stored as rows.
+     *
+     * @param feedResponse The new formulation.
+     * @param result       The solved breakdown.
+     */
+    public void applyFormulation(FeedResponse feedResponse, FormulationResult result) {
+        IngredientCatalog catalog = storageFormat == StorageFormat.PACKED ? ingredientCatalog.getIfAvailable() : null;
+        if (catalog != null && catalog.isStored(result.getTable().version())) {
+            feedResponse.setCatalogVersion(result.getTable().version());
+            feedResponse.setPackedQuantities(PackedQuantities.pack(result));
+            feedResponse.setIngredients(new ArrayList<>());
+            return;
+        }
+        List<Ingredient> ingredients = createIngredients(result);
+        setFeedResponseToIngredients(feedResponse, ingredients);
+        feedResponse.setIngredients(ingredients);
+    }
+
+    /**
+     * Brings the ingredients of a stored formulation in line with a new solve, touching only what changed.
+     * Packed quantities are replaced as one column. Ingredient rows are matched by name: rows whose
+     * values are unchanged are left alone so that they are not flushed, and rows are only added or
+     * removed when the ingredient table itself changed. Without a catalog copy of the new table,
+     * packed quantities are converted back to rows.
+     *
+     * @param feedResponse The stored formulation with its ingredients loaded.
+     * @param result       The new breakdown.
+     * @return The ingredient rows that were updated, added or removed.
+     */
+    public IngredientChanges reapplyFormulation(FeedResponse feedResponse, FormulationResult result) {
+        IngredientTable table = result.getTable();
+        if (feedResponse.getPackedQuantities() != null) {
+            IngredientCatalog catalog = ingredientCatalog.getIfAvailable();
+            if (catalog != null && catalog.isStored(table.version())) {
+                feedResponse.setCatalogVersion(table.version());
+                feedResponse.setPackedQuantities(PackedQuantities.pack(result));
+                return IngredientChanges.none();
+            }
+            feedResponse.setCatalogVersion(null);
+            feedResponse.setPackedQuantities(null);
+            feedResponse.getIngredients().clear();
+        }
+
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < table.size(); i++) {
+            names.add(table.name(i));
+        }
+        Map<String, Ingredient> existing = new HashMap<>();
+        List<Ingredient> removed = new ArrayList<>();
+        for (Iterator<Ingredient> iterator = feedResponse.getIngredients().iterator(); iterator.hasNext(); ) {
+            Ingredient ingredient = iterator.next();
+            if (!names.contains(ingredient.getName()) || existing.putIfAbsent(ingredient.getName(), ingredient) != null) {
+                iterator.remove();
+                removed.add(ingredient);
+            }
+        }
+
+        List<Ingredient> updated = new ArrayList<>();
+        List<Ingredient> added = new ArrayList<>();
+        for (int i = 0; i < table.size(); i++) {
+            Ingredient ingredient = existing.get(table.name(i));
+            if (ingredient == null) {
+                ingredient = Ingredient.builder()
+                        .name(table.name(i))
+                        .crudeProtein(table.crudeProtein(i))
+                        .quantity(result.quantity(i))
+                        .feedResponse(feedResponse)
+                        .build();
+                feedResponse.getIngredients().add(ingredient);
+                added.add(ingredient);
+                continue;
+            }
+            boolean changed = false;
+            if (Double.compare(ingredient.getQuantity(), result.quantity(i)) != 0) {
+                ingredient.setQuantity(result.quantity(i));
+                changed = true;
+            }
+            if (Double.compare(ingredient.getCrudeProtein(), table.crudeProtein(i)) != 0) {
+                ingredient.setCrudeProtein(table.crudeProtein(i));
+                changed = true;
+            }
+            if (changed) {
+                updated.add(ingredient);
+            }
+        }
+        return new IngredientChanges(updated, added, removed);
+    }
+
+    /**
+     * Returns the current ingredient table. Until a catalog has been published, the table
+     * configured in {@link Constants} is used.
+     *
+     * @return The current ingredient table.
+     */
+    public IngredientTable getIngredientTable() {
+        IngredientTable table = ingredientTable.get();
+        if (table == null) {
+            ingredientTable.compareAndSet(null, IngredientTable.fromConstants());
+            table = ingredientTable.get();
+        }
+        return table;
+    }
+
+    /**
+     * Replaces the ingredient table used by new solves and drops cached breakdowns if any value changed.
+     * Solves already running finish with the table they started with.
+     *
+     * @param table The new ingredient table.
+     */
+    public void publishIngredientTable(IngredientTable table) {
+        IngredientTable previous = ingredientTable.getAndSet(table);
+        if (previous == null || previous.version() != table.version()) {
+            log.info("Ingredient table changed to version {}; clearing cached formulations.", table.version());
+            formulationResultCache.invalidateAll();
+        }
     }
 
     /**
@@ -89,6 +323,9 @@ public class FeedFormulationSupport {
      * @return The corresponding FeedResponseDTO.
      */
     public FeedResponseDTO mapToDTO(FeedResponse feedResponse) {
+        if (feedResponse.getPackedQuantities() != null) {
+            return mapToDTO(feedResponse, unpackIngredients(feedResponse));
+        }
         List<IngredientDTO> ingredientDTOs = feedResponse.getIngredients()
                 .stream()
                 .map(ingredient -> IngredientDTO.builder()
@@ -97,11 +334,53 @@ public class FeedFormulationSupport {
                         .quantity(ingredient.getQuantity())
                         .build())
                 .collect(Collectors.toList());
+        return mapToDTO(feedResponse, ingredientDTOs);
+    }
 
+    private List<IngredientDTO> unpackIngredients(FeedResponse feedResponse) {
+        return unpackIngredients(feedResponse.getCatalogVersion(), feedResponse.getPackedQuantities());
+    }
+
+    /**
+     * Expands packed quantities into ingredient DTOs using the catalog table they refer to.
+     *
+     * @param catalogVersion   The catalog version stored with the quantities.
+     * @param packedQuantities The packed quantities.
+     * @return The ingredient DTOs in catalog order.
+     * @throws IllegalStateException if no ingredient catalog is available.
+     */
+    public List<IngredientDTO> unpackIngredients(Long catalogVersion, byte[] packedQuantities) {
+        IngredientCatalog catalog = ingredientCatalog.getIfAvailable();
+        if (catalog == null) {
+            throw new IllegalStateException("Catalog version " + catalogVersion
+                    + " is referenced by packed quantities but no ingredient catalog is available.");
+        }
+        IngredientTable table = catalog.get(catalogVersion);
+        double[] quantities = PackedQuantities.unpack(packedQuantities);
+        List<IngredientDTO> ingredientDTOs = new ArrayList<>(quantities.length);
+        for (int i = 0; i < quantities.length; i++) {
+            ingredientDTOs.add(IngredientDTO.builder()
+                    .name(table.name(i))
+                    .crudeProtein(table.crudeProtein(i))
+                    .quantity(quantities[i])
+                    .build());
+        }
+        return ingredientDTOs;
+    }
+
+    /**
+     * Maps a FeedResponse entity to its DTO representation with already built ingredient DTOs,
+     * such as those of a cached breakdown.
+     *
+     * @param feedResponse   The FeedResponse entity.
+     * @param ingredientDTOs The ingredient DTOs of the formulation.
+     * @return The corresponding FeedResponseDTO.
+     */
+    public FeedResponseDTO mapToDTO(FeedResponse feedResponse, List<IngredientDTO> ingredientDTOs) {
         return FeedResponseDTO.builder()
                 .formulationId(feedResponse.getFormulationId())
                 .formulationName(feedResponse.getFormulationName())
-                .date(feedResponse.getDate())
+                .date(feedResponse.getDate().toString())
                 .quantity(feedResponse.getQuantity())
                 .targetCpValue(feedResponse.getTargetCpValue())
                 .ingredients(ingredientDTOs)
@@ -0,0 +1,225 @@
+package com.api.feedFormulation.utils;
+
+import com.api.feedFormulation.dto.IngredientDTO;
+import com.api.feedFormulation.exception.InvalidInputException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads formulations from CSV in the layout written by {@link FormulationCsvWriter}: one line per
+ * ingredient, the lines of a formulation next to each other. Columns are found by their header name,
+ * so their order does not matter and formulation_id may be left out. The file is read one formulation
+ * at a time, never as a whole. Quoted fields may span lines, and the apostrophe the export puts in
+ * front of formula-like text is removed.
+ */
+public class FormulationCsvReader {
+
+    private static final String FORMULATION_ID = "formulation_id";
+    // Bounds the memory a stray quote can make one record take up
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+    private static final List<String> REQUIRED_COLUMNS = List.of("formulation_name", "date", "quantity",
+            "target_cp_value", "ingredient", "crude_protein", "ingredient_quantity");
+
+    private final BufferedReader reader;
+    private final Integer formulationIdColumn;
+    private final int[] columns = new int[REQUIRED_COLUMNS.size()];
+    private long lineNumber;
+    private long recordLine;
+    private List<String> pending;
+
+    /**
+     * Reads the header line.
+     *
+     * @param reader The CSV text.
+     * @throws IOException           if the text cannot be read.
+     * @throws InvalidInputException if the header is missing or lacks a required column.
+     */
+    public FormulationCsvReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new InvalidInputException("The CSV file is empty.");
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            positions.putIfAbsent(i == 0 && name.startsWith("\uFEFF") ? name.substring(1) : name, i);
+        }
+        for (int i = 0; i < REQUIRED_COLUMNS.size(); i++) {
+            Integer position = positions.get(REQUIRED_COLUMNS.get(i));
+            if (position == null) {
+                throw new InvalidInputException("The CSV header must contain the columns "
+                        + String.join(", ", REQUIRED_COLUMNS) + " and optionally " + FORMULATION_ID + ".");
+            }
+            columns[i] = position;
+        }
+        formulationIdColumn = positions.get(FORMULATION_ID);
+        pending = readRecord();
+    }
+
+    /**
+     * @return The number of lines read so far, including the header.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Reads the lines of the next formulation. Lines belong to the same formulation while their
+     * formulation ID and name stay the same. Formulations with unreadable lines are returned with
+     * an error rather than thrown, so that the rest of the file can still be read.
+     *
+     * @return The next formulation, or null at the end of the file.
+     * @throws IOException           if the text cannot be read.
+     * @throws InvalidInputException if a quoted field is never closed, after which nothing more can be read.
+     */
+    public ImportedFormulation next() throws IOException {
+        if (pending == null) {
+            return null;
+        }
+        long line = recordLine;
+        List<String> first = pending;
+        String formulationId = text(first, formulationIdColumn);
+        String formulationName = text(first, columns[0]);
+        String date = text(first, columns[1]);
+        String error = null;
+        double quantity = 0;
+        double targetCpValue = 0;
+        try {
+            quantity = number(first, columns[2], "quantity");
+            targetCpValue = number(first, columns[3], "target_cp_value");
+        } catch (IllegalArgumentException e) {
+            error = "Line " + line + ": " + e.getMessage();
+        }
+
+        List<IngredientDTO> ingredients = new ArrayList<>();
+        List<String> record = first;
+        do {
+            if (error == null) {
+                String ingredientError = addIngredient(record, ingredients);
+                if (ingredientError != null) {
+                    error = "Line " + recordLine + ": " + ingredientError;
+                }
+            }
+            record = readRecord();
+        } while (record != null && Objects.equals(text(record, formulationIdColumn), formulationId)
+                && Objects.equals(text(record, columns[0]), formulationName));
+        pending = record;
+        return new ImportedFormulation(line, formulationId, formulationName, date, quantity, targetCpValue,
+                error == null ? ingredients : List.of(), error);
+    }
+
+    private String addIngredient(List<String> record, List<IngredientDTO> ingredients) {
+        if (ingredients.size() == Constants.MAX_CATALOG_SIZE) {
+            return "A formulation may have at most " + Constants.MAX_CATALOG_SIZE + " ingredients.";
+        }
+        String name = text(record, columns[4]);
+        if (name == null) {
+            return "ingredient is required.";
+        }
+        try {
+            double crudeProtein = number(record, columns[5], "crude_protein");
+            double quantity = number(record, columns[6], "ingredient_quantity");
+            if (crudeProtein < 0 || quantity < 0) {
+                return "crude_protein and ingredient_quantity must not be negative.";
+            }
+            ingredients.add(IngredientDTO.builder().name(name).crudeProtein(crudeProtein).quantity(quantity).build());
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String text(List<String> record, Integer column) {
+        if (column == null || column >= record.size()) {
+            return null;
+        }
+        String value = record.get(column).trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        // Undo the formula guard added by the export
+        if (value.length() > 1 && value.charAt(0) == '\'' && "=+-@\t\r".indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+
+    private static double number(List<String> record, int column, String name) {
+        String value = text(record, column);
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required.");
+        }
+        try {
+            double number = Double.parseDouble(value);
+            if (Double.isFinite(number)) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(name + " is not a number.");
+    }
+
+    /**
+     * Reads the next non-blank record, joining the lines of quoted fields that contain line breaks.
+     */
+    private List<String> readRecord() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+        recordLine = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                line = reader.readLine();
+                if (line == null || field.length() > MAX_RECORD_LENGTH) {
+                    throw new InvalidInputException("Line " + recordLine + ": quoted field is not closed.");
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+}
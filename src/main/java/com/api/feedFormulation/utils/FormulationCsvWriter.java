@@ -0,0 +1,97 @@
+package com.api.feedFormulation.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+/**
+ * Writes formulations as CSV, one line per ingredient, in the dialect Excel opens without an
+ * import wizard: a UTF-8 byte order mark, comma separators, CRLF line endings and RFC 4180 quoting.
+ * Text cells that Excel would evaluate as a formula are prefixed with an apostrophe.
+ * Numbers are written in plain notation. Nothing is buffered here; wrap the target in a BufferedWriter.
+ */
+public class FormulationCsvWriter {
+
+    static final String HEADER = "formulation_id,formulation_name,date,quantity,target_cp_value,"
+            + "ingredient,crude_protein,ingredient_quantity";
+
+    private final Writer writer;
+
+    public FormulationCsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes the byte order mark and the header line.
+     *
+     * @throws IOException if the target cannot be written.
+     */
+    public void writeHeader() throws IOException {
+        writer.write('\uFEFF');
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    /**
+     * Writes one ingredient of a formulation as a line.
+     *
+     * @param formulationId   The ID of the formulation.
+     * @param formulationName The name of the formulation.
+     * @param date            The date of the formulation.
+     * @param quantity        The quantity of the formulation in kilograms.
+     * @param targetCpValue   The target crude protein value of the formulation.
+     * @param ingredient      The name of the ingredient.
+     * @param crudeProtein    The crude protein content of the ingredient.
+     * @param ingredientQuantity The quantity of the ingredient in kilograms.
+     * @throws IOException if the target cannot be written.
+     */
+    public void writeIngredient(String formulationId, String formulationName, String date, double quantity,
+                                double targetCpValue, String ingredient, double crudeProtein,
+                                double ingredientQuantity) throws IOException {
+        writeText(formulationId);
+        writer.write(',');
+        writeText(formulationName);
+        writer.write(',');
+        writeText(date);
+        writer.write(',');
+        writeNumber(quantity);
+        writer.write(',');
+        writeNumber(targetCpValue);
+        writer.write(',');
+        writeText(ingredient);
+        writer.write(',');
+        writeNumber(crudeProtein);
+        writer.write(',');
+        writeNumber(ingredientQuantity);
+        writer.write("\r\n");
+    }
+
+    private void writeText(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean formula = "=+-@\t\r".indexOf(value.charAt(0)) >= 0;
+        boolean quote = formula || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private void writeNumber(double value) throws IOException {
+        writer.write(Double.isFinite(value) ? BigDecimal.valueOf(value).stripTrailingZeros().toPlainString() : "");
+    }
+}
@@ -0,0 +1,72 @@
+package com.api.feedFormulation.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates compact, time-ordered, collision-free formulation identifiers.
+ * <p>
+ * Each id is a 64-bit value made of 41 bits of milliseconds since 2024-01-01, a 10-bit node id
+ * and a 12-bit sequence, encoded as 13 Crockford base32 characters. Ids from one node are strictly
+ * increasing, and the fixed-width encoding sorts in the same order as the numbers, so new rows
+ * are always appended to the right-hand side of a B-tree index. Nodes sharing a database must be
+ * configured with distinct node ids.
+ */
+@Component
+public class FormulationIdGenerator {
+
+    private static final long EPOCH_MILLIS = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeId;
+
+    /**
+     * Milliseconds since the epoch shifted left by the sequence bits, plus the sequence.
+     * Advanced with compare-and-set so concurrent callers never block each other.
+     */
+    private final AtomicLong lastState = new AtomicLong();
+
+    public FormulationIdGenerator(@Value("${feedFormulation.nodeId:0}") long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("feedFormulation.nodeId must be between 0 and " + MAX_NODE_ID + ".");
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Generates the next identifier. If the sequence of the current millisecond is exhausted,
+     * or the clock moves backwards, the id borrows the following millisecond, so ids never repeat.
+     *
+     * @return A 13 character identifier.
+     */
+    public String nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long state;
+        long next;
+        do {
+            state = lastState.get();
+            next = Math.max(now, state + 1);
+        } while (!lastState.compareAndSet(state, next));
+
+        long id = ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                | (nodeId << SEQUENCE_BITS)
+                | (next & SEQUENCE_MASK);
+        return encode(id);
+    }
+
+    private static String encode(long id) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
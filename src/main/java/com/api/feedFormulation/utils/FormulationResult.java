@@ -0,0 +1,79 @@
+package com.api.feedFormulation.utils;
+
+import com.api.feedFormulation.dto.IngredientDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Solved ingredient breakdown of a formulation, shared between requests through the result cache.
+ * Both the quantities and the ingredient DTOs are built once and must not be modified.
+ */
+public final class FormulationResult {
+
+    private final IngredientTable table;
+    private final double quantity;
+    private final double[] quantities;
+    private final List<IngredientDTO> ingredientDTOs;
+
+    FormulationResult(IngredientTable table, double quantity, double[] quantities) {
+        this.table = table;
+        this.quantity = quantity;
+        this.quantities = quantities;
+        List<IngredientDTO> dtos = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            dtos.add(new IngredientDTO(table.name(i), table.crudeProtein(i), quantities[i]));
+        }
+        this.ingredientDTOs = Collections.unmodifiableList(dtos);
+    }
+
+    /**
+     * @return The ingredient table the breakdown was solved against.
+     */
+    public IngredientTable getTable() {
+        return table;
+    }
+
+    /**
+     * @return The feed quantity in kilograms the breakdown was solved for.
+     */
+    public double getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Returns the same breakdown for another feed quantity. Both solvers fix the share of each
+     * ingredient for a given target, so the ingredient quantities scale linearly.
+     *
+     * @param quantity The feed quantity in kilograms.
+     * @return A new breakdown with every ingredient quantity scaled to the feed quantity.
+     */
+    public FormulationResult scaledTo(double quantity) {
+        double factor = quantity / this.quantity;
+        double[] scaled = new double[quantities.length];
+        for (int i = 0; i < quantities.length; i++) {
+            scaled[i] = quantities[i] * factor;
+        }
+        return new FormulationResult(table, quantity, scaled);
+    }
+
+    /**
+     * @param index Row of the ingredient in the table.
+     * @return The quantity of that ingredient in kilograms.
+     */
+    public double quantity(int index) {
+        return quantities[index];
+    }
+
+    double[] quantities() {
+        return quantities;
+    }
+
+    /**
+     * @return The breakdown as ingredient DTOs in table order.
+     */
+    public List<IngredientDTO> getIngredientDTOs() {
+        return ingredientDTOs;
+    }
+}
@@ -0,0 +1,22 @@
+package com.api.feedFormulation.utils;
+
+import com.api.feedFormulation.dto.IngredientDTO;
+
+import java.util.List;
+
+/**
+ * One formulation read from an imported CSV file, built from its consecutive ingredient lines.
+ *
+ * @param line            The line number of the first line of the formulation.
+ * @param formulationId   The formulation ID, or null if the file has none and one must be generated.
+ * @param formulationName The name of the formulation.
+ * @param date            The date of the formulation.
+ * @param quantity        The quantity of the formulation in kilograms.
+ * @param targetCpValue   The target crude protein value of the formulation.
+ * @param ingredients     The ingredients, in file order.
+ * @param error           Why the lines could not be read, or null if they could.
+ */
+public record ImportedFormulation(long line, String formulationId, String formulationName, String date,
+                                  double quantity, double targetCpValue, List<IngredientDTO> ingredients,
+                                  String error) {
+}
@@ -0,0 +1,25 @@
+package com.api.feedFormulation.utils;
+
+/**
+ * Stored ingredient tables, looked up by their version fingerprint.
+ * Packed formulations keep only the version of the table they were solved against.
+ */
+public interface IngredientCatalog {
+
+    /**
+     * Checks, without querying, whether a table is known to be stored. Tables are stored when they
+     * are published, outside of any request, so a formulation can refer to its table by version
+     * without writing the table in its own transaction.
+     *
+     * @param version The version fingerprint of a table.
+     * @return True if the table with that version is stored.
+     */
+    boolean isStored(long version);
+
+    /**
+     * @param version The version fingerprint of a stored table.
+     * @return The ingredient table with that version.
+     * @throws IllegalStateException if no table with that version is stored.
+     */
+    IngredientTable get(long version);
+}
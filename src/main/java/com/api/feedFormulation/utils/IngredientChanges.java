@@ -0,0 +1,23 @@
+package com.api.feedFormulation.utils;
+
+import com.api.feedFormulation.model.Ingredient;
+
+import java.util.List;
+
+/**
+ * Ingredient rows touched when a stored formulation is re-solved.
+ *
+ * @param updated Existing rows whose quantity or crude protein changed.
+ * @param added   New rows for ingredients the formulation did not have.
+ * @param removed Existing rows for ingredients no longer in the ingredient table.
+ */
+public record IngredientChanges(List<Ingredient> updated, List<Ingredient> added, List<Ingredient> removed) {
+
+    public static IngredientChanges none() {
+        return new IngredientChanges(List.of(), List.of(), List.of());
+    }
+
+    public boolean isEmpty() {
+        return updated.isEmpty() && added.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,201 @@
+package com.api.feedFormulation.utils;
+
+/**
+ * Immutable table of the ingredients used in a formulation, held as parallel primitive arrays.
+ * Row order is the order in which ingredients are reported to the client.
+ * The solvers read the arrays directly, so they must never be modified after construction.
+ */
+public final class IngredientTable {
+
+    // Solver groups
+    public static final int PROTEIN = 0;
+    public static final int BASAL = 1;
+    public static final int FIXED = 2;
+
+    private final String[] names;
+    private final String[] categories;
+    private final double[] crudeProtein;
+    private final double[] ratio;
+    private final double[] cost;
+    private final double[] energy;
+    private final double[] calcium;
+    private final double[] maxInclusion;
+    private final int[] group;
+    private final long version;
+
+    private IngredientTable(String[] names, String[] categories, double[] crudeProtein, double[] ratio,
+                            double[] cost, double[] energy, double[] calcium, double[] maxInclusion) {
+        int size = names.length;
+        if (categories.length != size || crudeProtein.length != size || ratio.length != size || cost.length != size
+                || energy.length != size || calcium.length != size || maxInclusion.length != size) {
+            throw new IllegalArgumentException("Every ingredient column must have " + size + " values.");
+        }
+        this.names = names.clone();
+        this.categories = categories.clone();
+        this.crudeProtein = crudeProtein.clone();
+        this.ratio = ratio.clone();
+        this.cost = cost.clone();
+        this.energy = energy.clone();
+        this.calcium = calcium.clone();
+        this.maxInclusion = maxInclusion.clone();
+        this.group = new int[size];
+        for (int i = 0; i < size; i++) {
+            group[i] = switch (categories[i]) {
+                case Constants.PROTEINS -> PROTEIN;
+                case Constants.CARBOHYDRATES -> BASAL;
+                default -> FIXED;
+            };
+        }
+        this.version = fingerprint();
+    }
+
+    /**
+     * Builds a table from parallel columns, one value per ingredient. The arrays are copied.
+     *
+     * @param names        Ingredient names.
+     * @param categories   Ingredient categories, one of the category constants in {@link Constants}.
+     * @param crudeProtein Crude protein percentage of each ingredient.
+     * @param ratio        Pearson square ratio of each ingredient.
+     * @param cost         Cost per kilogram of each ingredient.
+     * @param energy       Metabolizable energy of each ingredient in kcal/kg.
+     * @param calcium      Calcium percentage of each ingredient.
+     * @param maxInclusion Maximum share of each ingredient in a least-cost ration.
+     * @return A new IngredientTable.
+     */
+    public static IngredientTable of(String[] names, String[] categories, double[] crudeProtein, double[] ratio,
+                                     double[] cost, double[] energy, double[] calcium, double[] maxInclusion) {
+        return new IngredientTable(names, categories, crudeProtein, ratio, cost, energy, calcium, maxInclusion);
+    }
+
+    /**
+     * Builds the table from the ingredient values configured in {@link Constants}.
+     *
+     * @return A new IngredientTable.
+     */
+    public static IngredientTable fromConstants() {
+        return new IngredientTable(
+                new String[]{"Soya beans", "Groundnuts", "Blood Meal", "Fish Meal", "Maize", "Cassava",
+                        "Diphosphate Calcium", "Bone Meal", "Marine Shell Flour", "Salt", "Vitamin C", "Premix",
+                        "Concentrate", "Palm Oil", "Anti-toxin"},
+                new String[]{Constants.PROTEINS, Constants.PROTEINS, Constants.PROTEINS, Constants.PROTEINS,
+                        Constants.CARBOHYDRATES, Constants.CARBOHYDRATES,
+                        Constants.MINERALS, Constants.MINERALS, Constants.MINERALS, Constants.MINERALS,
+                        Constants.VITAMINS, Constants.VITAMINS,
+                        Constants.PROTEINS, Constants.OTHERS, Constants.OTHERS},
+                new double[]{Constants.CRUDE_SOYA_VALUE, Constants.CRUDE_NUTS_VALUE, Constants.CRUDE_BLOOD_VALUE,
+                        Constants.CRUDE_FISH_VALUE, Constants.CRUDE_MAIZE_VALUE, Constants.CRUDE_CAS_VALUE,
+                        Constants.CRUDE_00_VALUE, Constants.CRUDE_00_VALUE, Constants.CRUDE_00_VALUE,
+                        Constants.CRUDE_00_VALUE, Constants.CRUDE_00_VALUE, Constants.CRUDE_00_VALUE,
+                        Constants.CRUDE_CON_VALUE, Constants.CRUDE_00_VALUE, Constants.CRUDE_00_VALUE},
+                new double[]{Constants.CALC_003_VALUE, Constants.CALC_01_VALUE, Constants.CALC_005_VALUE,
+                        Constants.CALC_01_VALUE, Constants.CALC_02_VALUE, Constants.CALC_01_VALUE,
+                        Constants.CALC_002_VALUE, Constants.CALC_002_VALUE, Constants.CALC_002_VALUE,
+                        Constants.CALC_0005_VALUE, Constants.CALC_0005_VALUE, Constants.CALC_001_VALUE,
+                        Constants.CALC_005_VALUE, Constants.CALC_002_VALUE, Constants.CALC_00005_VALUE},
+                Constants.INGREDIENT_COSTS, Constants.INGREDIENT_ENERGY, Constants.INGREDIENT_CALCIUM,
+                Constants.INGREDIENT_MAX_INCLUSION);
+    }
+
+    /**
+     * Content fingerprint of the table: tables with the same values have the same version.
+     *
+     * @return A 64-bit version derived from every column.
+     */
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public String category(int index) {
+        return categories[index];
+    }
+
+    public double crudeProtein(int index) {
+        return crudeProtein[index];
+    }
+
+    public double ratio(int index) {
+        return ratio[index];
+    }
+
+    public double cost(int index) {
+        return cost[index];
+    }
+
+    public double energy(int index) {
+        return energy[index];
+    }
+
+    public double calcium(int index) {
+        return calcium[index];
+    }
+
+    public double maxInclusion(int index) {
+        return maxInclusion[index];
+    }
+
+    public int group(int index) {
+        return group[index];
+    }
+
+    double[] crudeProteins() {
+        return crudeProtein;
+    }
+
+    double[] ratios() {
+        return ratio;
+    }
+
+    double[] costs() {
+        return cost;
+    }
+
+    double[] energies() {
+        return energy;
+    }
+
+    double[] calciums() {
+        return calcium;
+    }
+
+    double[] maxInclusions() {
+        return maxInclusion;
+    }
+
+    int[] groups() {
+        return group;
+    }
+
+    /**
+     * 64-bit FNV-1a hash over every value of the table.
+     */
+    private long fingerprint() {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < names.length; i++) {
+            hash = mix(hash, names[i].hashCode());
+            hash = mix(hash, categories[i].hashCode());
+            hash = mix(hash, Double.doubleToLongBits(crudeProtein[i]));
+            hash = mix(hash, Double.doubleToLongBits(ratio[i]));
+            hash = mix(hash, Double.doubleToLongBits(cost[i]));
+            hash = mix(hash, Double.doubleToLongBits(energy[i]));
+            hash = mix(hash, Double.doubleToLongBits(calcium[i]));
+            hash = mix(hash, Double.doubleToLongBits(maxInclusion[i]));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
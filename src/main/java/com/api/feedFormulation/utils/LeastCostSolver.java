@@ -0,0 +1,277 @@
+package com.api.feedFormulation.utils;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Least-cost ration solver: a dense dual simplex over primitive arrays.
+ * <p>
+ * Ingredient shares x are bounded below by the fixed additive ratios and above by the maximum
+ * inclusion of each ingredient, and must sum to one while meeting the crude protein target and the
+ * energy and calcium minimums. Every constraint is written as a {@code <=} row with its own slack,
+ * so the all-slack basis is dual feasible for non-negative costs and the dual simplex can start
+ * from it without a phase one.
+ * <p>
+ * The optimal tableau of the last solve is kept as a warm start. Only the crude protein row depends
+ * on the request, so a change of target changes the right-hand side alone: the previous basis stays
+ * dual feasible and usually needs a few pivots at most. A change of quantity needs none, since the
+ * ration is solved in shares.
+ */
+@Component
+public class LeastCostSolver {
+
+    private static final double EPSILON = 1e-9;
+    private static final int NUTRIENT_ROWS = 5;
+
+    private volatile WarmStart warmStart;
+
+    /**
+     * Solves the least-cost ration.
+     *
+     * @param table      The ingredient table.
+     * @param minEnergy  Minimum metabolizable energy of the ration in kcal/kg.
+     * @param minCalcium Minimum calcium percentage of the ration.
+     * @param quantity   Total quantity of the feed.
+     * @param target     Minimum crude protein percentage of the ration.
+     * @param out        Receives the quantity of each ingredient in table order.
+     * @return True if a feasible ration exists, false otherwise (out is then left unspecified).
+     */
+    public boolean solve(IngredientTable table, double minEnergy, double minCalcium,
+                         double quantity, double target, double[] out) {
+        double[] lower = lowerBounds(table);
+        double[] rhs = rightHandSide(table, lower, minEnergy, minCalcium, target);
+
+        WarmStart warm = warmStart;
+        Tableau tableau;
+        if (warm != null && warm.table == table && warm.minEnergy == minEnergy && warm.minCalcium == minCalcium) {
+            tableau = warm.tableau.copy();
+            tableau.resetRightHandSide(rhs);
+        } else {
+            tableau = Tableau.build(table, rhs);
+        }
+        if (!tableau.dualSimplex()) {
+            return false;
+        }
+        warmStart = new WarmStart(table, minEnergy, minCalcium, tableau);
+
+        System.arraycopy(lower, 0, out, 0, lower.length);
+        tableau.addBasicValues(out);
+        for (int i = 0; i < lower.length; i++) {
+            out[i] *= quantity;
+        }
+        return true;
+    }
+
+    /**
+     * Fixed additives are included at least at their configured ratio; every other ingredient is optional.
+     */
+    private static double[] lowerBounds(IngredientTable table) {
+        double[] lower = new double[table.size()];
+        for (int i = 0; i < lower.length; i++) {
+            lower[i] = table.group(i) == IngredientTable.FIXED ? table.ratio(i) : 0;
+        }
+        return lower;
+    }
+
+    /**
+     * Right-hand side of every row after substituting x = lower + y.
+     * Rows: share sum (upper and lower), crude protein, energy, calcium, then one maximum inclusion row per ingredient.
+     */
+    private static double[] rightHandSide(IngredientTable table, double[] lower,
+                                          double minEnergy, double minCalcium, double target) {
+        double[] crudeProtein = table.crudeProteins();
+        double[] energy = table.energies();
+        double[] calcium = table.calciums();
+        double[] maxInclusion = table.maxInclusions();
+        int n = lower.length;
+
+        double share = 0;
+        double lowerCp = 0;
+        double lowerEnergy = 0;
+        double lowerCalcium = 0;
+        for (int i = 0; i < n; i++) {
+            share += lower[i];
+            lowerCp += lower[i] * crudeProtein[i];
+            lowerEnergy += lower[i] * energy[i];
+            lowerCalcium += lower[i] * calcium[i];
+        }
+
+        double[] rhs = new double[NUTRIENT_ROWS + n];
+        rhs[0] = 1 - share;
+        rhs[1] = -(1 - share);
+        rhs[2] = -(target - lowerCp);
+        rhs[3] = -(minEnergy - lowerEnergy);
+        rhs[4] = -(minCalcium - lowerCalcium);
+        for (int i = 0; i < n; i++) {
+            rhs[NUTRIENT_ROWS + i] = maxInclusion[i] - lower[i];
+        }
+        return rhs;
+    }
+
+    /**
+     * Optimal tableau of a previous solve together with the inputs it was built from.
+     * Published once and never modified; solves that reuse it work on a copy.
+     */
+    private static final class WarmStart {
+        private final IngredientTable table;
+        private final double minEnergy;
+        private final double minCalcium;
+        private final Tableau tableau;
+
+        private WarmStart(IngredientTable table, double minEnergy, double minCalcium, Tableau tableau) {
+            this.table = table;
+            this.minEnergy = minEnergy;
+            this.minCalcium = minCalcium;
+            this.tableau = tableau;
+        }
+    }
+
+    /**
+     * Dense simplex tableau with n structural columns followed by one slack column per row.
+     */
+    private static final class Tableau {
+        private final int n;
+        private final int m;
+        private final double[][] a;
+        private final double[] rhs;
+        private final double[] reducedCost;
+        private final int[] basis;
+
+        private Tableau(int n, int m) {
+            this.n = n;
+            this.m = m;
+            this.a = new double[m][n + m];
+            this.rhs = new double[m];
+            this.reducedCost = new double[n + m];
+            this.basis = new int[m];
+        }
+
+        static Tableau build(IngredientTable table, double[] rhs) {
+            double[] crudeProtein = table.crudeProteins();
+            double[] energy = table.energies();
+            double[] calcium = table.calciums();
+            double[] cost = table.costs();
+            int n = table.size();
+            Tableau tableau = new Tableau(n, NUTRIENT_ROWS + n);
+            double[][] a = tableau.a;
+            for (int j = 0; j < n; j++) {
+                a[0][j] = 1;
+                a[1][j] = -1;
+                a[2][j] = -crudeProtein[j];
+                a[3][j] = -energy[j];
+                a[4][j] = -calcium[j];
+                a[NUTRIENT_ROWS + j][j] = 1;
+                tableau.reducedCost[j] = cost[j];
+            }
+            for (int r = 0; r < tableau.m; r++) {
+                a[r][n + r] = 1;
+                tableau.basis[r] = n + r;
+            }
+            System.arraycopy(rhs, 0, tableau.rhs, 0, rhs.length);
+            return tableau;
+        }
+
+        Tableau copy() {
+            Tableau copy = new Tableau(n, m);
+            for (int r = 0; r < m; r++) {
+                System.arraycopy(a[r], 0, copy.a[r], 0, n + m);
+            }
+            System.arraycopy(rhs, 0, copy.rhs, 0, m);
+            System.arraycopy(reducedCost, 0, copy.reducedCost, 0, n + m);
+            System.arraycopy(basis, 0, copy.basis, 0, m);
+            return copy;
+        }
+
+        /**
+         * Replaces the right-hand side with B^-1 b for a new b. The slack columns hold B^-1,
+         * since they started as the identity and went through every pivot.
+         */
+        void resetRightHandSide(double[] b) {
+            for (int i = 0; i < m; i++) {
+                double[] row = a[i];
+                double value = 0;
+                for (int k = 0; k < m; k++) {
+                    value += row[n + k] * b[k];
+                }
+                rhs[i] = value;
+            }
+        }
+
+        /**
+         * Runs the dual simplex until the basis is primal feasible.
+         *
+         * @return True if optimal, false if the problem is infeasible or fails to converge.
+         */
+        boolean dualSimplex() {
+            int maxIterations = 50 * (n + m);
+            for (int iteration = 0; iteration < maxIterations; iteration++) {
+                int leaving = -1;
+                double mostNegative = -EPSILON;
+                for (int i = 0; i < m; i++) {
+                    if (rhs[i] < mostNegative) {
+                        mostNegative = rhs[i];
+                        leaving = i;
+                    }
+                }
+                if (leaving < 0) {
+                    return true;
+                }
+
+                double[] row = a[leaving];
+                int entering = -1;
+                double bestRatio = Double.POSITIVE_INFINITY;
+                for (int j = 0; j < n + m; j++) {
+                    if (row[j] < -EPSILON) {
+                        double ratio = reducedCost[j] / -row[j];
+                        if (ratio < bestRatio - EPSILON) {
+                            bestRatio = ratio;
+                            entering = j;
+                        }
+                    }
+                }
+                if (entering < 0) {
+                    return false;
+                }
+                pivot(leaving, entering);
+            }
+            return false;
+        }
+
+        private void pivot(int pivotRow, int pivotColumn) {
+            double[] row = a[pivotRow];
+            double pivot = row[pivotColumn];
+            for (int j = 0; j < n + m; j++) {
+                row[j] /= pivot;
+            }
+            rhs[pivotRow] /= pivot;
+
+            for (int i = 0; i < m; i++) {
+                if (i == pivotRow) {
+                    continue;
+                }
+                double[] other = a[i];
+                double factor = other[pivotColumn];
+                if (factor != 0) {
+                    for (int j = 0; j < n + m; j++) {
+                        other[j] -= factor * row[j];
+                    }
+                    rhs[i] -= factor * rhs[pivotRow];
+                }
+            }
+            double factor = reducedCost[pivotColumn];
+            if (factor != 0) {
+                for (int j = 0; j < n + m; j++) {
+                    reducedCost[j] -= factor * row[j];
+                }
+            }
+            basis[pivotRow] = pivotColumn;
+        }
+
+        void addBasicValues(double[] shares) {
+            for (int i = 0; i < m; i++) {
+                if (basis[i] < n) {
+                    shares[basis[i]] += rhs[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.api.feedFormulation.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-width binary encoding of ingredient quantities: one big-endian IEEE 754 double per
+ * ingredient, in ingredient table order. Fifteen ingredients take 120 bytes.
+ */
+public final class PackedQuantities {
+
+    private PackedQuantities() {
+    }
+
+    /**
+     * @param result The solved breakdown.
+     * @return The quantities of the breakdown, packed.
+     */
+    public static byte[] pack(FormulationResult result) {
+        return pack(result.quantities());
+    }
+
+    /**
+     * @param quantities Quantity of each ingredient in kilograms.
+     * @return The packed quantities.
+     */
+    public static byte[] pack(double[] quantities) {
+        ByteBuffer buffer = ByteBuffer.allocate(quantities.length * Double.BYTES);
+        for (double quantity : quantities) {
+            buffer.putDouble(quantity);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @param packed Quantities packed by {@link #pack(double[])}.
+     * @return Quantity of each ingredient in kilograms.
+     * @throws IllegalArgumentException if the length is not a whole number of quantities.
+     */
+    public static double[] unpack(byte[] packed) {
+        if (packed.length % Double.BYTES != 0) {
+            throw new IllegalArgumentException("Packed quantities must be a multiple of " + Double.BYTES + " bytes.");
+        }
+        double[] quantities = new double[packed.length / Double.BYTES];
+        ByteBuffer.wrap(packed).asDoubleBuffer().get(quantities);
+        return quantities;
+    }
+}
@@ -0,0 +1,107 @@
+package com.api.feedFormulation.utils;
+
+/**
+ * Pearson square solver for feed formulation.
+ * All methods are static, allocation-free and work on primitive arrays,
+ * so they are safe to call concurrently and cheap enough for batch use.
+ */
+public final class PearsonSquareSolver {
+
+    private PearsonSquareSolver() {
+    }
+
+    /**
+     * Solves the classic two-ingredient Pearson square.
+     * The parts of each ingredient are the distance between the target and the other ingredient's CP.
+     *
+     * @param crudeProteinA Crude protein of the first ingredient.
+     * @param crudeProteinB Crude protein of the second ingredient.
+     * @param target        Target crude protein of the mix.
+     * @return The fraction of the first ingredient in the mix, or NaN if the target lies outside both values.
+     */
+    public static double solveTwo(double crudeProteinA, double crudeProteinB, double target) {
+        double partsA = Math.abs(crudeProteinB - target);
+        double partsB = Math.abs(crudeProteinA - target);
+        if (target < Math.min(crudeProteinA, crudeProteinB) || target > Math.max(crudeProteinA, crudeProteinB)) {
+            return Double.NaN;
+        }
+        if (partsA + partsB == 0) {
+            // Both ingredients already equal the target
+            return 0.5;
+        }
+        return partsA / (partsA + partsB);
+    }
+
+    /**
+     * Solves a grouped Pearson square over a protein group, a basal group and fixed additives.
+     * Fixed ingredients keep their ratio of the total quantity. The rest of the quantity is split
+     * between the protein and basal groups with a two-ingredient square on the group averages,
+     * and each group is then divided between its members by their relative ratios.
+     *
+     * @param crudeProtein Crude protein of each ingredient.
+     * @param ratio        Ratio of each ingredient; relative within a group, absolute for fixed ingredients.
+     * @param group        Group of each ingredient, one of {@link IngredientTable#PROTEIN},
+     *                     {@link IngredientTable#BASAL} or {@link IngredientTable#FIXED}.
+     * @param quantity     Total quantity of the feed.
+     * @param target       Target crude protein of the feed.
+     * @param out          Receives the quantity of each ingredient; must be at least as long as the inputs.
+     * @return True if the target can be reached, false otherwise (out is then left unspecified).
+     */
+    public static boolean solveGrouped(double[] crudeProtein, double[] ratio, int[] group,
+                                       double quantity, double target, double[] out) {
+        double proteinRatio = 0;
+        double proteinCp = 0;
+        double basalRatio = 0;
+        double basalCp = 0;
+        double fixedRatio = 0;
+        double fixedCp = 0;
+        for (int i = 0; i < group.length; i++) {
+            double weighted = ratio[i] * crudeProtein[i];
+            if (group[i] == IngredientTable.PROTEIN) {
+                proteinRatio += ratio[i];
+                proteinCp += weighted;
+            } else if (group[i] == IngredientTable.BASAL) {
+                basalRatio += ratio[i];
+                basalCp += weighted;
+            } else {
+                fixedRatio += ratio[i];
+                fixedCp += weighted;
+            }
+        }
+        if (proteinRatio <= 0 || basalRatio <= 0 || fixedRatio >= 1) {
+            return false;
+        }
+
+        double remaining = 1 - fixedRatio;
+        double proteinShare = solveTwo(proteinCp / proteinRatio, basalCp / basalRatio, (target - fixedCp) / remaining);
+        if (Double.isNaN(proteinShare)) {
+            return false;
+        }
+
+        double proteinQuantity = quantity * remaining * proteinShare / proteinRatio;
+        double basalQuantity = quantity * remaining * (1 - proteinShare) / basalRatio;
+        for (int i = 0; i < group.length; i++) {
+            if (group[i] == IngredientTable.PROTEIN) {
+                out[i] = proteinQuantity * ratio[i];
+            } else if (group[i] == IngredientTable.BASAL) {
+                out[i] = basalQuantity * ratio[i];
+            } else {
+                out[i] = quantity * ratio[i];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Solves the grouped Pearson square for the given ingredient table.
+     *
+     * @param table    The ingredient table.
+     * @param quantity Total quantity of the feed.
+     * @param target   Target crude protein of the feed.
+     * @param out      Receives the quantity of each ingredient in table order.
+     * @return True if the target can be reached, false otherwise.
+     */
+    public static boolean solve(IngredientTable table, double quantity, double target, double[] out) {
+        return solveGrouped(table.crudeProteins(), table.ratios(), table.groups(), quantity, target, out);
+    }
+}
@@ -0,0 +1,59 @@
+package com.api.feedFormulation.cache;
+
+import com.api.feedFormulation.dto.FeedResponseDTO;
+import com.api.feedFormulation.exception.InvalidInputException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FeedResponseCacheTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 5, 1);
+
+    private final FeedResponseCache cache = new FeedResponseCache(100, Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    public void testHitDoesNotCallTheLoader() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("0ABC", DATE, () -> formulation(loads.incrementAndGet()));
+        FeedResponseDTO cached = cache.get("0ABC", DATE, () -> formulation(loads.incrementAndGet()));
+
+        assertEquals(1, loads.get());
+        assertEquals("Layers 1", cached.getFormulationName());
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached() {
+        assertThrows(InvalidInputException.class, () -> cache.getSerialized("0ABC", DATE, () -> {
+            throw new InvalidInputException("Feed formulation not found");
+        }));
+
+        FeedResponseDTO loaded = cache.get("0ABC", DATE, () -> formulation(2));
+
+        assertEquals("Layers 2", loaded.getFormulationName());
+    }
+
+    @Test
+    public void testEvictForcesReload() {
+        cache.get("0ABC", DATE, () -> formulation(1));
+
+        cache.evictAfterCommit("0ABC", DATE);
+        FeedResponseDTO reloaded = cache.get("0ABC", DATE, () -> formulation(2));
+
+        assertEquals("Layers 2", reloaded.getFormulationName());
+    }
+
+    private static FeedResponseDTO formulation(int number) {
+        return FeedResponseDTO.builder()
+                .formulationId("0ABC")
+                .formulationName("Layers " + number)
+                .date(DATE.toString())
+                .build();
+    }
+}
@@ -0,0 +1,235 @@
+package com.api.feedFormulation.controller;
+
+import com.api.feedFormulation.utils.Constants;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests of the HTTP API against the H2 stand-in, with Hibernate statistics counting the
+ * statements each read issues to check the formulation response cache.
+ * Each test uses names of its own, as the database is shared by the tests of the class.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class FeedFormulationControllerTest {
+
+    private static final String BASE = "/api/v1/feed-formulation";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    public void testGetLoadsOnceAndThenServesFromCache() throws Exception {
+        // Imported formulations are not put in the cache, so the first read is a miss
+        mockMvc.perform(post(BASE + "/import").contentType("text/csv").content(
+                        "formulation_id,formulation_name,date,quantity,target_cp_value,ingredient,crude_protein,ingredient_quantity\r\n"
+                                + "0CACHEREAD001,cache-read,2024-05-01,100,20,Maize,9,100\r\n"))
+                .andExpect(status().isOk());
+        statistics.clear();
+
+        MvcResult first = mockMvc.perform(get(BASE + "/0CACHEREAD001/2024-05-01"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+        statistics.clear();
+
+        MvcResult second = mockMvc.perform(get(BASE + "/0CACHEREAD001/2024-05-01"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(first.getResponse().getContentAsString(), second.getResponse().getContentAsString());
+        assertEquals(first.getResponse().getHeader(HttpHeaders.ETAG), second.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void testMatchingIfNoneMatchIsNotModified() throws Exception {
+        JsonNode created = create("cache-etag", 100);
+        String path = path(created);
+        String etag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    public void testUpdatePutsTheNewVersionInTheCache() throws Exception {
+        JsonNode created = create("cache-update", 100);
+        String path = path(created);
+        String before = mockMvc.perform(get(path)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put(path).contentType(MediaType.APPLICATION_JSON).content(body("cache-update", 250, 20)))
+                .andExpect(status().isOk());
+        statistics.clear();
+        MvcResult read = mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(250, objectMapper.readTree(read.getResponse().getContentAsByteArray()).get("quantity").asDouble());
+        assertNotEquals(before, read.getResponse().getHeader(HttpHeaders.ETAG));
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testFailedUpdateLeavesTheCachedVersion() throws Exception {
+        JsonNode created = create("cache-failed-update", 100);
+        String path = path(created);
+        String before = mockMvc.perform(get(path)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put(path).contentType(MediaType.APPLICATION_JSON).content(body("cache-failed-update", 100, 90)))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testDeleteEvictsTheCachedVersion() throws Exception {
+        JsonNode created = create("cache-delete", 100);
+        String path = path(created);
+        mockMvc.perform(get(path)).andExpect(status().isOk());
+
+        mockMvc.perform(delete(path)).andExpect(status().isNoContent());
+
+        mockMvc.perform(get(path))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Feed formulation not found"));
+    }
+
+    @Test
+    public void testSweepStreamsOnePointPerLine() throws Exception {
+        MvcResult started = mockMvc.perform(post(BASE + "/sweep").contentType(MediaType.APPLICATION_JSON)
+                        .content(sweep(20, 90, 70, 100, 200, 50)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        Set<String> points = new HashSet<>();
+        for (String line : body.split("\n")) {
+            JsonNode point = objectMapper.readTree(line);
+            points.add(point.get("quantity").asDouble() + "/" + point.get("targetCpValue").asDouble());
+            if (point.get("targetCpValue").asDouble() == 20) {
+                assertTrue(point.get("feasible").asBoolean());
+                assertEquals(point.get("quantity").asDouble(), sum(point.get("ingredients")), 1e-6);
+            } else {
+                // Out of reach of the available ingredients, reported without failing the sweep
+                assertFalse(point.get("feasible").asBoolean());
+                assertEquals("Target CP value cannot be reached with the available ingredients.", point.get("message").asText());
+                assertTrue(point.get("ingredients").isNull());
+            }
+        }
+        assertEquals(Set.of("100.0/20.0", "150.0/20.0", "200.0/20.0", "100.0/90.0", "150.0/90.0", "200.0/90.0"), points);
+        assertEquals(6, body.split("\n").length);
+    }
+
+    @Test
+    public void testSweepIsBoundedByMaxSweepPoints() throws Exception {
+        // 200 target CP values by 100 quantities is exactly the limit
+        MvcResult started = mockMvc.perform(post(BASE + "/sweep").contentType(MediaType.APPLICATION_JSON)
+                        .content(sweep(1, 200, 1, 1, 100, 1)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(Constants.MAX_SWEEP_POINTS, body.split("\n").length);
+
+        mockMvc.perform(post(BASE + "/sweep").contentType(MediaType.APPLICATION_JSON)
+                        .content(sweep(1, 200, 1, 1, 101, 1)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Sweep must not exceed " + Constants.MAX_SWEEP_POINTS + " points."));
+        // A single range over the limit is rejected before the grid is built
+        mockMvc.perform(post(BASE + "/sweep").contentType(MediaType.APPLICATION_JSON)
+                        .content(sweep(1, 200, 0.001, 100, 100, 1)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Sweep must not exceed " + Constants.MAX_SWEEP_POINTS + " points."));
+        mockMvc.perform(post(BASE + "/sweep").contentType(MediaType.APPLICATION_JSON)
+                        .content(sweep(30, 20, 1, 100, 100, 1)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Target CP range must have a positive step and a minimum not above the maximum."));
+    }
+
+    private JsonNode create(String name, double quantity) throws Exception {
+        MvcResult result = mockMvc.perform(post(BASE).contentType(MediaType.APPLICATION_JSON).content(body(name, quantity, 20)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    }
+
+    private String body(String name, double quantity, double targetCpValue) {
+        return "{\"formulationName\":\"" + name + "\",\"quantity\":" + quantity + ",\"targetCpValue\":" + targetCpValue + "}";
+    }
+
+    private static String sweep(double minTargetCpValue, double maxTargetCpValue, double targetCpStep,
+                                double minQuantity, double maxQuantity, double quantityStep) {
+        return "{\"minTargetCpValue\":" + minTargetCpValue + ",\"maxTargetCpValue\":" + maxTargetCpValue
+                + ",\"targetCpStep\":" + targetCpStep + ",\"minQuantity\":" + minQuantity
+                + ",\"maxQuantity\":" + maxQuantity + ",\"quantityStep\":" + quantityStep + "}";
+    }
+
+    private static double sum(JsonNode ingredients) {
+        double total = 0;
+        for (JsonNode ingredient : ingredients) {
+            total += ingredient.get("quantity").asDouble();
+        }
+        return total;
+    }
+
+    private static String path(JsonNode formulation) {
+        return BASE + "/" + formulation.get("formulationId").asText() + "/" + formulation.get("date").asText();
+    }
+}
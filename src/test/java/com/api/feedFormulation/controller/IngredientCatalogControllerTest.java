@@ -0,0 +1,155 @@
+package com.api.feedFormulation.controller;
+
+import com.api.feedFormulation.cache.FormulationResultCache;
+import com.api.feedFormulation.dto.CatalogIngredientDTO;
+import com.api.feedFormulation.dto.IngredientCatalogDTO;
+import com.api.feedFormulation.service.IngredientCatalogReloader;
+import com.api.feedFormulation.service.IngredientCatalogService;
+import com.api.feedFormulation.utils.FeedFormulationSupport;
+import com.api.feedFormulation.utils.FormulationResult;
+import com.api.feedFormulation.utils.IngredientTable;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests that a new ingredient catalog reaches the solvers, through the catalog endpoint and the
+ * reloader, against the H2 stand-in. The catalog is shared by the tests of the whole context,
+ * so every test restores the catalog it started with.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class IngredientCatalogControllerTest {
+
+    private static final String BASE = "/api/v1/ingredient-catalog";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IngredientCatalogService catalogService;
+
+    @Autowired
+    private IngredientCatalogReloader reloader;
+
+    @Autowired
+    private FeedFormulationSupport support;
+
+    @Autowired
+    private FormulationResultCache formulationResultCache;
+
+    private IngredientTable original;
+    private List<CatalogIngredientDTO> originalIngredients;
+
+    @BeforeEach
+    public void setUp() {
+        original = support.getIngredientTable();
+        originalIngredients = catalogService.getCatalog().getIngredients();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        catalogService.updateCatalog(originalIngredients);
+    }
+
+    @Test
+    public void testUpdatedCatalogInvalidatesCachedBreakdowns() throws Exception {
+        FormulationResult cached = support.solve(100, 20, null);
+        assertSame(cached, support.solve(100, 20, null));
+
+        IngredientCatalogDTO updated = objectMapper.readValue(mockMvc.perform(put(BASE).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(withCrudeProtein(0, originalIngredients.get(0).getCrudeProtein() + 5))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray(), IngredientCatalogDTO.class);
+
+        assertNotEquals(original.version(), updated.getVersion());
+        assertEquals(0, formulationResultCache.stats().getSize());
+        FormulationResult solved = support.solve(100, 20, null);
+        assertNotSame(cached, solved);
+        assertEquals(updated.getVersion(), solved.getTable().version());
+        assertEquals(originalIngredients.get(0).getCrudeProtein() + 5, solved.getIngredientDTOs().get(0).getCrudeProtein());
+
+        // New formulations are solved with the new catalog too
+        JsonNode created = objectMapper.readTree(mockMvc.perform(post("/api/v1/feed-formulation").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"formulationName\":\"catalog-updated\",\"quantity\":100,\"targetCpValue\":20}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray());
+        assertEquals(originalIngredients.get(0).getCrudeProtein() + 5,
+                created.get("ingredients").get(0).get("crudeProtein").asDouble());
+    }
+
+    @Test
+    public void testPublishingTheSameTableKeepsCachedBreakdowns() {
+        FormulationResult cached = support.solve(100, 20, null);
+
+        support.publishIngredientTable(support.getIngredientTable());
+
+        assertSame(cached, support.solve(100, 20, null));
+    }
+
+    @Test
+    public void testRejectedCatalogLeavesTheTableAndCache() throws Exception {
+        FormulationResult cached = support.solve(100, 20, null);
+
+        mockMvc.perform(put(BASE).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(List.of(originalIngredients.get(0), originalIngredients.get(0)))))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(original.version(), support.getIngredientTable().version());
+        assertSame(cached, support.solve(100, 20, null));
+    }
+
+    @Test
+    public void testReloadPublishesTheActiveCatalog() {
+        IngredientCatalogDTO updated = catalogService.updateCatalog(withCrudeProtein(0, originalIngredients.get(0).getCrudeProtein() + 5));
+        // As on another instance that has not seen the update yet
+        support.publishIngredientTable(original);
+        FormulationResult stale = support.solve(100, 20, null);
+        assertEquals(original.version(), stale.getTable().version());
+
+        reloader.reload();
+
+        assertEquals(updated.getVersion(), support.getIngredientTable().version());
+        assertEquals(updated.getVersion(), support.solve(100, 20, null).getTable().version());
+    }
+
+    private List<CatalogIngredientDTO> withCrudeProtein(int index, double crudeProtein) {
+        List<CatalogIngredientDTO> ingredients = new ArrayList<>();
+        for (CatalogIngredientDTO ingredient : originalIngredients) {
+            ingredients.add(CatalogIngredientDTO.builder()
+                    .name(ingredient.getName())
+                    .category(ingredient.getCategory())
+                    .crudeProtein(ingredients.size() == index ? crudeProtein : ingredient.getCrudeProtein())
+                    .ratio(ingredient.getRatio())
+                    .cost(ingredient.getCost())
+                    .energy(ingredient.getEnergy())
+                    .calcium(ingredient.getCalcium())
+                    .maxInclusion(ingredient.getMaxInclusion())
+                    .build());
+        }
+        return ingredients;
+    }
+}
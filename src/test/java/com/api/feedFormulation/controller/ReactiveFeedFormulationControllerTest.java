@@ -0,0 +1,115 @@
+package com.api.feedFormulation.controller;
+
+import com.api.feedFormulation.dto.FeedResponseDTO;
+import com.api.feedFormulation.model.FeedResponse;
+import com.api.feedFormulation.repository.ReactiveFeedFormulationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the WebFlux + R2DBC variant of the API against the H2 stand-in.
+ * Each test uses names of its own, as the database is shared by the tests of the class.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles({"reactive", "reactive-h2"})
+public class ReactiveFeedFormulationControllerTest {
+
+    private static final String BASE = "/api/v1/feed-formulation";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveFeedFormulationRepository repository;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Test
+    public void testCreateGetUpdateAndDelete() {
+        FeedResponseDTO created = create("reactive-crud", 100);
+        String path = path(created);
+
+        FeedResponseDTO read = webTestClient.get().uri(path).exchange()
+                .expectStatus().isOk()
+                .expectBody(FeedResponseDTO.class).returnResult().getResponseBody();
+        assertEquals("reactive-crud", read.getFormulationName());
+        assertEquals(created.getIngredients(), read.getIngredients());
+
+        FeedResponseDTO updated = webTestClient.put().uri(path).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body("reactive-crud-renamed", 250, 20)).exchange()
+                .expectStatus().isOk()
+                .expectBody(FeedResponseDTO.class).returnResult().getResponseBody();
+        assertEquals(250, updated.getQuantity());
+        FeedResponseDTO reread = webTestClient.get().uri(path).exchange()
+                .expectBody(FeedResponseDTO.class).returnResult().getResponseBody();
+        assertEquals("reactive-crud-renamed", reread.getFormulationName());
+        assertEquals(updated.getIngredients(), reread.getIngredients());
+
+        webTestClient.delete().uri(path).exchange().expectStatus().isNoContent();
+        webTestClient.get().uri(path).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Feed formulation not found");
+        webTestClient.delete().uri(path).exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testDuplicateNameIsRejected() {
+        create("reactive-taken", 100);
+        FeedResponseDTO other = create("reactive-other", 100);
+
+        webTestClient.post().uri(BASE).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body("reactive-taken", 200, 20)).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Formulation name must be unique.");
+        webTestClient.put().uri(path(other)).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body("reactive-taken", 200, 20)).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Formulation name must be unique.");
+    }
+
+    @Test
+    public void testStaleDeleteIsAConflictAndKeepsTheFormulation() {
+        FeedResponseDTO created = create("reactive-stale", 100);
+        LocalDate date = LocalDate.parse(created.getDate());
+        FeedResponse stale = repository.findWithIngredientsByFormulationIdAndDate(created.getFormulationId(), date).block();
+
+        webTestClient.put().uri(path(created)).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body("reactive-stale", 300, 20)).exchange()
+                .expectStatus().isOk();
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> repository.delete(stale).as(transactionalOperator::transactional).block());
+        FeedResponse kept = repository.findWithIngredientsByFormulationIdAndDate(created.getFormulationId(), date).block();
+        assertEquals(300, kept.getQuantity());
+        assertEquals(stale.getIngredients().size(), kept.getIngredients().size());
+    }
+
+    private FeedResponseDTO create(String name, double quantity) {
+        return webTestClient.post().uri(BASE).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body(name, quantity, 20)).exchange()
+                .expectStatus().isOk()
+                .expectBody(FeedResponseDTO.class).returnResult().getResponseBody();
+    }
+
+    private static String body(String name, double quantity, double targetCpValue) {
+        return "{\"formulationName\":\"" + name + "\",\"quantity\":" + quantity + ",\"targetCpValue\":" + targetCpValue + "}";
+    }
+
+    private static String path(FeedResponseDTO formulation) {
+        return BASE + "/" + formulation.getFormulationId() + "/" + formulation.getDate();
+    }
+}
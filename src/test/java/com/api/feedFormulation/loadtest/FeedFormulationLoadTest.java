@@ -0,0 +1,268 @@
+package com.api.feedFormulation.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Open-loop load test of the REST API against the H2 stand-in.
+ * <p>
+ * Each client thread issues requests on a fixed schedule and latency is measured from the
+ * scheduled start, not the actual send, so a slow server is not hidden by clients backing off
+ * (coordinated omission). Latencies are recorded per operation in HdrHistograms and written as
+ * percentile distributions to {@code loadtest.output}.
+ * <p>
+ * Only runs with the loadtest profile: {@code mvn -Ploadtest test}. Settings are system properties:
+ * loadtest.rate (requests/s), loadtest.concurrency, loadtest.durationSeconds, loadtest.warmupSeconds,
+ * loadtest.seed (formulations created up front), loadtest.mix (weights as create,get,list,update,delete),
+ * loadtest.virtualClients (run clients on virtual threads, for 1k+ concurrency), loadtest.asyncCreate
+ * (create with ?async=true) and loadtest.output.
+ * Server settings can be passed the same way, e.g. {@code -Dspring.threads.virtual.enabled=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"logging.level.root=warn", "spring.jpa.properties.hibernate.generate_statistics=false"})
+@ActiveProfiles("h2")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class FeedFormulationLoadTest {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int KEY_CAPACITY = 1 << 17;
+
+    private enum Operation {
+        CREATE, GET, LIST, UPDATE, DELETE
+    }
+
+    @LocalServerPort
+    private int port;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final AtomicLong names = new AtomicLong();
+
+    // Ring of "formulationId/date" paths of live formulations; deleted slots are set to null
+    private final AtomicReferenceArray<String> keys = new AtomicReferenceArray<>(KEY_CAPACITY);
+    private final AtomicLong keyCount = new AtomicLong();
+
+    private final Histogram[] histograms = new Histogram[Operation.values().length];
+    private final LongAdder[] clientErrors = new LongAdder[Operation.values().length];
+    private final LongAdder[] serverErrors = new LongAdder[Operation.values().length];
+
+    private String baseUrl;
+    private String createUrl;
+    private int[] mix;
+    private int mixTotal;
+
+    @Test
+    public void testMixedWorkload() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "200"));
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 30);
+        int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 5);
+        int seed = Integer.getInteger("loadtest.seed", 200);
+        boolean virtualClients = Boolean.getBoolean("loadtest.virtualClients");
+        Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest"));
+        mix = parseMix(System.getProperty("loadtest.mix", "20,50,10,15,5"));
+        baseUrl = "http://localhost:" + port + "/api/v1/feed-formulation";
+        createUrl = Boolean.getBoolean("loadtest.asyncCreate") ? baseUrl + "?async=true" : baseUrl;
+
+        for (Operation operation : Operation.values()) {
+            histograms[operation.ordinal()] = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+            clientErrors[operation.ordinal()] = new LongAdder();
+            serverErrors[operation.ordinal()] = new LongAdder();
+        }
+        for (int i = 0; i < seed; i++) {
+            execute(Operation.CREATE);
+        }
+
+        ExecutorService clients = virtualClients
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(concurrency);
+        try {
+            runPhase(clients, rate, concurrency, warmupSeconds);
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i].reset();
+                clientErrors[i].reset();
+                serverErrors[i].reset();
+            }
+            runPhase(clients, rate, concurrency, durationSeconds);
+        } finally {
+            clients.shutdownNow();
+        }
+
+        long totalServerErrors = writeReport(output, rate, concurrency, durationSeconds);
+        assertEquals(0, totalServerErrors, "Server errors during load test");
+    }
+
+    private void runPhase(ExecutorService clients, double rate, int concurrency, int seconds) throws Exception {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * concurrency / rate);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int c = 0; c < concurrency; c++) {
+            // Stagger the clients across one interval so requests are spread evenly
+            long offset = intervalNanos * c / concurrency;
+            workers.add(clients.submit(() -> runClient(start + offset, end, intervalNanos)));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+    }
+
+    private void runClient(long start, long end, long intervalNanos) {
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = nextOperation();
+            execute(operation);
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+            histograms[operation.ordinal()].recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        }
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(mixTotal);
+        for (Operation operation : Operation.values()) {
+            pick -= mix[operation.ordinal()];
+            if (pick < 0) {
+                return operation;
+            }
+        }
+        return Operation.GET;
+    }
+
+    private void execute(Operation operation) {
+        try {
+            HttpResponse<String> response;
+            switch (operation) {
+                case CREATE -> {
+                    response = send(HttpRequest.newBuilder(URI.create(createUrl))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(requestBody())));
+                    if (response.statusCode() == 200 || response.statusCode() == 202) {
+                        JsonNode created = objectMapper.readTree(response.body());
+                        long slot = keyCount.getAndIncrement() % KEY_CAPACITY;
+                        keys.set((int) slot, created.get("formulationId").asText() + "/" + created.get("date").asText());
+                    }
+                }
+                case GET -> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + randomKey())).GET());
+                case LIST -> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/page?size=50")).GET());
+                case UPDATE -> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + randomKey()))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(requestBody())));
+                case DELETE -> {
+                    int slot = randomSlot();
+                    String key = keys.getAndSet(slot, null);
+                    response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + (key == null ? "missing/missing" : key)))
+                            .DELETE());
+                }
+                default -> throw new IllegalStateException();
+            }
+            if (response.statusCode() >= 500) {
+                serverErrors[operation.ordinal()].increment();
+            } else if (response.statusCode() >= 400) {
+                clientErrors[operation.ordinal()].increment();
+            }
+        } catch (IOException e) {
+            serverErrors[operation.ordinal()].increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(java.time.Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String requestBody() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return String.format(Locale.ROOT, "{\"formulationName\":\"load-%d\",\"quantity\":%d,\"targetCpValue\":%d}",
+                names.incrementAndGet(), 50 + random.nextInt(20) * 50, 14 + random.nextInt(7) * 2);
+    }
+
+    private int randomSlot() {
+        long count = Math.min(keyCount.get(), KEY_CAPACITY);
+        return count == 0 ? 0 : ThreadLocalRandom.current().nextInt((int) count);
+    }
+
+    private String randomKey() {
+        String key = keys.get(randomSlot());
+        return key == null ? "missing/missing" : key;
+    }
+
+    private long writeReport(Path output, double rate, int concurrency, int durationSeconds) throws IOException {
+        Files.createDirectories(output);
+        long totalServerErrors = 0;
+        long total = 0;
+        for (Histogram histogram : histograms) {
+            total += histogram.getTotalCount();
+        }
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT,
+                "rate=%.0f/s concurrency=%d duration=%ds virtualThreads=%s throughput=%.1f/s%n"
+                        + "%-8s %8s %10s %10s %10s %10s %8s %8s%n",
+                rate, concurrency, durationSeconds, System.getProperty("spring.threads.virtual.enabled", "false"),
+                (double) total / durationSeconds, "op", "count", "p50 ms", "p99 ms", "p999 ms", "max ms", "4xx", "5xx"));
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms[operation.ordinal()];
+            try (PrintStream out = new PrintStream(Files.newOutputStream(
+                    output.resolve(operation.name().toLowerCase(Locale.ROOT) + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+            long errors = serverErrors[operation.ordinal()].sum();
+            totalServerErrors += errors;
+            summary.append(String.format(Locale.ROOT, "%-8s %8d %10.2f %10.2f %10.2f %10.2f %8d %8d%n",
+                    operation, histogram.getTotalCount(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0,
+                    clientErrors[operation.ordinal()].sum(), errors));
+        }
+        Files.writeString(output.resolve("summary.txt"), summary);
+        System.out.print(summary);
+        return totalServerErrors;
+    }
+
+    private int[] parseMix(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != Operation.values().length) {
+            throw new IllegalArgumentException("loadtest.mix needs " + Operation.values().length + " weights.");
+        }
+        int[] weights = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            weights[i] = Integer.parseInt(parts[i].trim());
+            mixTotal += weights[i];
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,211 @@
+package com.api.feedFormulation.repository;
+
+import com.api.feedFormulation.dto.FeedSummaryDTO;
+import com.api.feedFormulation.dto.FormulationSearchDTO;
+import com.api.feedFormulation.model.FeedResponse;
+import com.api.feedFormulation.model.Ingredient;
+import com.api.feedFormulation.utils.FormulationIdGenerator;
+import com.api.feedFormulation.utils.PackedQuantities;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regression tests for the number of SQL statements issued per formulation,
+ * run against the H2 stand-in with Hibernate statistics enabled.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+public class FeedFormulationRepositoryTest {
+
+    @Autowired
+    private FeedFormulationRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final FormulationIdGenerator idGenerator = new FormulationIdGenerator(0);
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    public void testCreateIsBatchedIntoOneInsertPerTable() {
+        // The first save also allocates the id blocks from the sequences
+        saveFormulation("warm-up");
+        statistics.clear();
+
+        saveFormulation("batched");
+
+        assertEquals(16, statistics.getEntityInsertCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testPackedCreateIsOneInsert() {
+        // Allocate the id block first, as for rows
+        savePackedFormulation("warm-up-1");
+        savePackedFormulation("warm-up-2");
+        statistics.clear();
+
+        savePackedFormulation("packed");
+
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testPageLoadsIngredientsWithoutPerRowSelects() {
+        for (int i = 0; i < 5; i++) {
+            saveFormulation("page-" + i);
+        }
+        entityManager.clear();
+        statistics.clear();
+
+        List<Long> ids = repository.findIdsAfter(0L, Limit.of(3));
+        List<FeedResponse> page = repository.findAllWithIngredientsByIdIn(ids);
+
+        assertEquals(3, page.size());
+        page.forEach(response -> assertEquals(15, response.getIngredients().size()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testSummariesPageCreatesNoEntities() {
+        for (int i = 0; i < 5; i++) {
+            saveFormulation("summary-" + i);
+        }
+        entityManager.clear();
+        statistics.clear();
+
+        List<FeedSummaryDTO> page = repository.findSummariesAfter(0L, Limit.of(3));
+
+        assertEquals(3, page.size());
+        assertEquals("summary-0", page.get(0).getFormulationName());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testSearchPagesThroughMatchesInDateOrderWithoutEntities() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 6; i++) {
+            saveFormulation("search-" + i, start.plusDays(5 - i), i % 2 == 0 ? 18 : 22);
+        }
+        saveFormulation("search_other", start.plusDays(2), 18);
+        entityManager.clear();
+        statistics.clear();
+
+        FormulationSearchDTO search = FormulationSearchDTO.builder()
+                .fromDate(start.plusDays(1))
+                .toDate(start.plusDays(5))
+                .namePrefix("search-")
+                .maxTargetCpValue(20.0)
+                .build();
+        List<FeedSummaryDTO> first = repository.searchSummaries(search, null, null, 2);
+        FeedSummaryDTO last = first.get(first.size() - 1);
+        List<FeedSummaryDTO> second = repository.searchSummaries(search, last.getDate(), last.getId(), 2);
+
+        assertEquals(List.of("search-4", "search-2"), first.stream().map(FeedSummaryDTO::getFormulationName).toList());
+        assertEquals(List.of("search-0"), second.stream().map(FeedSummaryDTO::getFormulationName).toList());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testChangedIngredientsAreUpdatedInOneBatch() {
+        FeedResponse saved = saveFormulation("update");
+        entityManager.clear();
+        FeedResponse response = repository.findWithIngredientsByFormulationIdAndDate(saved.getFormulationId(), saved.getDate())
+                .orElseThrow();
+        statistics.clear();
+
+        response.getIngredients().subList(0, 3).forEach(ingredient -> ingredient.setQuantity(ingredient.getQuantity() + 1));
+        entityManager.flush();
+
+        assertEquals(3, statistics.getEntityUpdateCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testDuplicateNameIsReportedByTheNameConstraint() {
+        saveFormulation("duplicate");
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> saveFormulation("duplicate"));
+
+        assertTrue(e.getMessage().toLowerCase().contains(FeedResponse.FORMULATION_NAME_CONSTRAINT), e.getMessage());
+    }
+
+    @Test
+    public void testStaleUpdateFailsOptimistically() {
+        FeedResponse response = saveFormulation("stale");
+        // Another transaction updates the formulation after it was read
+        entityManager.createNativeQuery("update feed_response set version = version + 1 where id = :id")
+                .setParameter("id", response.getId())
+                .executeUpdate();
+
+        response.setTargetCpValue(20);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> repository.saveAndFlush(response));
+    }
+
+    private FeedResponse saveFormulation(String name) {
+        return saveFormulation(name, LocalDate.now(), 18);
+    }
+
+    private FeedResponse saveFormulation(String name, LocalDate date, double targetCpValue) {
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            ingredients.add(Ingredient.builder().name("Ingredient " + i).crudeProtein(i).quantity(100.0 / 15).build());
+        }
+        FeedResponse response = FeedResponse.builder()
+                .formulationId(idGenerator.nextId())
+                .formulationName(name)
+                .date(date)
+                .quantity(100)
+                .targetCpValue(targetCpValue)
+                .ingredients(ingredients)
+                .build();
+        ingredients.forEach(ingredient -> ingredient.setFeedResponse(response));
+        return repository.saveAndFlush(response);
+    }
+
+    private void savePackedFormulation(String name) {
+        double[] quantities = new double[15];
+        Arrays.fill(quantities, 100.0 / 15);
+        repository.save(FeedResponse.builder()
+                .formulationId(idGenerator.nextId())
+                .formulationName(name)
+                .date(LocalDate.now())
+                .quantity(100)
+                .targetCpValue(18)
+                .ingredients(new ArrayList<>())
+                .catalogVersion(1L)
+                .packedQuantities(PackedQuantities.pack(quantities))
+                .build());
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,121 @@
+package com.api.feedFormulation.service;
+
+import com.api.feedFormulation.dto.BulkFormulationResultDTO;
+import com.api.feedFormulation.dto.FeedRequestDTO;
+import com.api.feedFormulation.dto.ImportRejectionDTO;
+import com.api.feedFormulation.dto.ImportResultDTO;
+import com.api.feedFormulation.model.FeedResponse;
+import com.api.feedFormulation.repository.FeedFormulationRepository;
+import com.api.feedFormulation.utils.Constants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the service against the H2 stand-in, through its own transactions.
+ * Each test uses names of its own, as the database is shared by the tests of the class.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+public class FeedFormulationServiceIntegrationTest {
+
+    @Autowired
+    private FeedFormulationService service;
+
+    @Autowired
+    private FeedFormulationRepository repository;
+
+    @Test
+    public void testBulkRejectsOnlyTheBadItems() {
+        service.calculateFeed(request("bulk-existing", 100, 20));
+
+        List<BulkFormulationResultDTO> results = service.calculateFeeds(List.of(
+                request("bulk-a", 100, 20),
+                request("bulk-existing", 100, 20),
+                request("bulk-a", 200, 20),
+                request("bulk-heavy", 5000, 20),
+                request("bulk-infeasible", 100, 90),
+                // Passes validation but is too long for the column, failing its chunk on insert
+                request("bulk-" + "x".repeat(300), 100, 20),
+                request("bulk-b", 150, 18)));
+
+        assertEquals(List.of(BulkFormulationResultDTO.Status.CREATED, BulkFormulationResultDTO.Status.REJECTED,
+                        BulkFormulationResultDTO.Status.REJECTED, BulkFormulationResultDTO.Status.REJECTED,
+                        BulkFormulationResultDTO.Status.REJECTED, BulkFormulationResultDTO.Status.REJECTED,
+                        BulkFormulationResultDTO.Status.CREATED),
+                results.stream().map(BulkFormulationResultDTO::getStatus).toList());
+        assertEquals("Formulation name must be unique.", results.get(1).getMessage());
+        assertEquals("Formulation name must be unique.", results.get(2).getMessage());
+        assertEquals("Quantity must be greater than zero and not exceed 1000 kg.", results.get(3).getMessage());
+        assertEquals("Target CP value cannot be reached with the available ingredients.", results.get(4).getMessage());
+        assertEquals("Formulation could not be saved.", results.get(5).getMessage());
+        assertEquals(15, results.get(6).getFormulation().getIngredients().size());
+        assertTrue(repository.existsByFormulationName("bulk-a"));
+        assertTrue(repository.existsByFormulationName("bulk-b"));
+    }
+
+    @Test
+    public void testImportRejectsOnlyTheBadFormulations() throws IOException {
+        service.calculateFeed(request("import-existing", 100, 20));
+        String csv = "formulation_id,formulation_name,date,quantity,target_cp_value,ingredient,crude_protein,ingredient_quantity\r\n"
+                + "0IMPORTA00001,import-a,2024-05-01,100,20,Maize,9,60\r\n"
+                + "0IMPORTA00001,import-a,2024-05-01,100,20,Soybean meal,44,40\r\n"
+                + "0IMPORTX00001,import-existing,2024-05-01,100,20,Maize,9,100\r\n"
+                // Too long for the column, failing its chunk on insert
+                + "0IMPORTL00001," + "l".repeat(300) + ",2024-05-01,100,20,Maize,9,100\r\n"
+                + "0IMPORTB00001,import-b,2024-05-02,50,18,Maize,9,50\r\n";
+
+        ImportResultDTO result = service.importFeedFormulations(new StringReader(csv));
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(List.of(4L, 5L), result.getRejections().stream().map(ImportRejectionDTO::getLine).toList());
+        assertEquals("Formulation name must be unique.", result.getRejections().get(0).getMessage());
+        assertEquals("Formulation could not be saved.", result.getRejections().get(1).getMessage());
+        FeedResponse imported = repository.findWithIngredientsByFormulationIdAndDate("0IMPORTA00001", LocalDate.of(2024, 5, 1))
+                .orElseThrow();
+        assertEquals("import-a", imported.getFormulationName());
+        assertEquals(2, imported.getIngredients().size());
+        assertTrue(repository.existsByFormulationName("import-b"));
+    }
+
+    @Test
+    public void testStreamWritesOutsideTransactions() {
+        // More than one page, so that the cursor moves on between transactions
+        service.calculateFeeds(IntStream.rangeClosed(1, Constants.STREAM_PAGE_SIZE + 1)
+                .mapToObj(i -> request("stream-" + i, 100, 20))
+                .toList());
+        Set<String> streamed = new HashSet<>();
+
+        service.streamFeedFormulations(formulation -> {
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            if (formulation.getFormulationName().startsWith("stream-")) {
+                assertTrue(streamed.add(formulation.getFormulationName()));
+            }
+        });
+
+        assertEquals(Constants.STREAM_PAGE_SIZE + 1, streamed.size());
+    }
+
+    private static FeedRequestDTO request(String name, double quantity, double targetCpValue) {
+        return FeedRequestDTO.builder()
+                .formulationName(name)
+                .quantity(quantity)
+                .targetCpValue(targetCpValue)
+                .build();
+    }
+}
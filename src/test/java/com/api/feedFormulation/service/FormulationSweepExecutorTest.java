@@ -0,0 +1,72 @@
+package com.api.feedFormulation.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FormulationSweepExecutorTest {
+
+    private final FormulationSweepExecutor executor = new FormulationSweepExecutor();
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSolvesEveryPointOnce() {
+        List<Integer> points;
+        try (Stream<Integer> results = executor.solve(1000, point -> point)) {
+            points = results.sorted().toList();
+        }
+
+        assertEquals(1000, points.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(i, points.get(i));
+        }
+    }
+
+    @Test
+    public void testClosingStopsTheWorkers() throws InterruptedException {
+        AtomicInteger solved = new AtomicInteger();
+        Stream<Integer> results = executor.solve(1_000_000, point -> {
+            solved.incrementAndGet();
+            return point;
+        });
+        Iterator<Integer> iterator = results.iterator();
+        for (int i = 0; i < 10; i++) {
+            iterator.next();
+        }
+
+        // As when writing to the client fails
+        results.close();
+        Thread.sleep(100);
+        int afterClose = solved.get();
+        Thread.sleep(100);
+
+        assertEquals(afterClose, solved.get());
+        assertTrue(afterClose < 1_000_000);
+    }
+
+    @Test
+    public void testFailedPointFailsTheStream() {
+        try (Stream<Integer> results = executor.solve(100, point -> {
+            if (point == 50) {
+                throw new ArithmeticException();
+            }
+            return point;
+        })) {
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> results.forEach(point -> {
+            }));
+            assertTrue(e.getCause() instanceof ArithmeticException);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.api.feedFormulation.service;
+
+import com.api.feedFormulation.cache.FeedResponseCache;
+import com.api.feedFormulation.dto.FeedRequestDTO;
+import com.api.feedFormulation.dto.FeedResponseDTO;
+import com.api.feedFormulation.dto.PersistenceStatusDTO;
+import com.api.feedFormulation.exception.InvalidInputException;
+import com.api.feedFormulation.exception.ServiceUnavailableException;
+import com.api.feedFormulation.metrics.FeedFormulationMetrics;
+import com.api.feedFormulation.model.FeedResponse;
+import com.api.feedFormulation.repository.FeedFormulationRepository;
+import com.api.feedFormulation.utils.FeedFormulationSupport;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the write-behind queue against the H2 stand-in. Apart from the service test, each test
+ * runs a queue of its own whose first transaction waits for the test, so that it controls which
+ * formulations are queued together.
+ * Each test uses names of its own, as the database is shared by the tests of the class.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+public class FormulationWriteBehindQueueTest {
+
+    @Autowired
+    private FeedFormulationService service;
+
+    @Autowired
+    private FeedFormulationRepository repository;
+
+    @Autowired
+    private FeedFormulationSupport support;
+
+    @Autowired
+    private FeedResponseCache feedResponseCache;
+
+    @Autowired
+    private FeedFormulationMetrics metrics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void testFullQueueIsTurnedAway() throws InterruptedException {
+        GatedTransactionTemplate gate = new GatedTransactionTemplate(transactionManager);
+        FormulationWriteBehindQueue queue = queue(gate, 1, 1);
+        queue.start();
+
+        FeedResponse first = enqueue(queue, "queue-full-1");
+        gate.awaitEntered();
+        FeedResponse second = enqueue(queue, "queue-full-2");
+        FeedResponse turnedAway = formulation("queue-full-3");
+
+        assertThrows(ServiceUnavailableException.class, () -> queue.enqueue(turnedAway, support.mapToDTO(turnedAway)));
+        assertEquals(PersistenceStatusDTO.Status.PENDING, status(queue, second));
+        assertEquals(PersistenceStatusDTO.Status.NOT_FOUND, status(queue, turnedAway));
+        assertFalse(queue.isPending("queue-full-3"));
+
+        gate.open();
+        queue.stop();
+
+        assertEquals(PersistenceStatusDTO.Status.PERSISTED, status(queue, first));
+        assertEquals(PersistenceStatusDTO.Status.PERSISTED, status(queue, second));
+        FeedResponse late = formulation("queue-full-4");
+        assertThrows(ServiceUnavailableException.class, () -> queue.enqueue(late, support.mapToDTO(late)));
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedOneByOne() throws InterruptedException {
+        service.calculateFeed(request("queue-retry-taken"));
+        GatedTransactionTemplate gate = new GatedTransactionTemplate(transactionManager);
+        FormulationWriteBehindQueue queue = queue(gate, 10, 10);
+        queue.start();
+
+        enqueue(queue, "queue-retry-first");
+        gate.awaitEntered();
+        // Queued while the first batch is held, so that the writer saves them as one batch
+        FeedResponse valid = enqueue(queue, "queue-retry-a");
+        FeedResponse taken = enqueue(queue, "queue-retry-taken");
+        FeedResponse tooLong = enqueue(queue, "q".repeat(300));
+        FeedResponse alsoValid = enqueue(queue, "queue-retry-b");
+        assertThrows(InvalidInputException.class, () -> enqueue(queue, "queue-retry-a"));
+        gate.open();
+        queue.stop();
+
+        assertEquals(PersistenceStatusDTO.Status.PERSISTED, status(queue, valid));
+        assertEquals(PersistenceStatusDTO.Status.PERSISTED, status(queue, alsoValid));
+        PersistenceStatusDTO duplicate = queue.getStatus(taken.getFormulationId(), taken.getDate().toString());
+        assertEquals(PersistenceStatusDTO.Status.FAILED, duplicate.getStatus());
+        assertEquals("Formulation name must be unique.", duplicate.getMessage());
+        PersistenceStatusDTO failed = queue.getStatus(tooLong.getFormulationId(), tooLong.getDate().toString());
+        assertEquals(PersistenceStatusDTO.Status.FAILED, failed.getStatus());
+        assertEquals("Formulation could not be saved.", failed.getMessage());
+        assertTrue(repository.existsByFormulationIdAndDate(valid.getFormulationId(), valid.getDate()));
+        assertFalse(repository.existsByFormulationIdAndDate(taken.getFormulationId(), taken.getDate()));
+        assertFalse(queue.isPending("queue-retry-taken"));
+    }
+
+    @Test
+    public void testStatusIsLookedUpForFormulationsNotQueuedHere() {
+        FeedResponseDTO saved = service.calculateFeed(request("queue-status-saved"));
+        FormulationWriteBehindQueue queue = queue(new GatedTransactionTemplate(transactionManager), 1, 1);
+
+        assertEquals(PersistenceStatusDTO.Status.PERSISTED,
+                queue.getStatus(saved.getFormulationId(), saved.getDate()).getStatus());
+        assertEquals(PersistenceStatusDTO.Status.NOT_FOUND,
+                queue.getStatus(saved.getFormulationId(), LocalDate.parse(saved.getDate()).minusDays(1).toString()).getStatus());
+        assertEquals(PersistenceStatusDTO.Status.NOT_FOUND,
+                queue.getStatus(saved.getFormulationId(), "yesterday").getStatus());
+        assertEquals(PersistenceStatusDTO.Status.NOT_FOUND,
+                queue.getStatus("0UNKNOWN00000", saved.getDate()).getStatus());
+    }
+
+    @Test
+    public void testAsyncCreateOfATakenNameFailsWhenSaved() throws InterruptedException {
+        service.calculateFeed(request("queue-async-taken"));
+
+        FeedResponseDTO accepted = service.calculateFeedAsync(request("queue-async-taken"));
+        FeedResponseDTO other = service.calculateFeedAsync(request("queue-async-free"));
+
+        PersistenceStatusDTO duplicate = awaitOutcome(accepted);
+        assertEquals(PersistenceStatusDTO.Status.FAILED, duplicate.getStatus());
+        assertEquals("Formulation name must be unique.", duplicate.getMessage());
+        assertEquals(PersistenceStatusDTO.Status.PERSISTED, awaitOutcome(other).getStatus());
+        assertThrows(InvalidInputException.class, () -> service.calculateFeedAsync(
+                FeedRequestDTO.builder().formulationName("queue-async-invalid").quantity(-1).targetCpValue(20).build()));
+    }
+
+    private PersistenceStatusDTO awaitOutcome(FeedResponseDTO formulation) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        PersistenceStatusDTO status = service.getPersistenceStatus(formulation.getFormulationId(), formulation.getDate());
+        while (status.getStatus() == PersistenceStatusDTO.Status.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = service.getPersistenceStatus(formulation.getFormulationId(), formulation.getDate());
+        }
+        return status;
+    }
+
+    private FormulationWriteBehindQueue queue(TransactionTemplate transactionTemplate, int capacity, int batchSize) {
+        FormulationChunkWriter chunkWriter = new FormulationChunkWriter(repository, support, entityManager, transactionTemplate, metrics);
+        return new FormulationWriteBehindQueue(repository, chunkWriter, feedResponseCache, metrics,
+                capacity, batchSize, Duration.ofMillis(20), Duration.ofMillis(50));
+    }
+
+    private FeedResponse enqueue(FormulationWriteBehindQueue queue, String name) {
+        FeedResponse response = formulation(name);
+        queue.enqueue(response, support.mapToDTO(response));
+        return response;
+    }
+
+    private FeedResponse formulation(String name) {
+        FeedResponse response = FeedResponse.builder()
+                .formulationId(support.generateGuid())
+                .date(LocalDate.now())
+                .formulationName(name)
+                .quantity(100)
+                .targetCpValue(20)
+                .build();
+        support.applyFormulation(response, support.solve(100, 20, null));
+        return response;
+    }
+
+    private static PersistenceStatusDTO.Status status(FormulationWriteBehindQueue queue, FeedResponse response) {
+        return queue.getStatus(response.getFormulationId(), response.getDate().toString()).getStatus();
+    }
+
+    private static FeedRequestDTO request(String name) {
+        return FeedRequestDTO.builder().formulationName(name).quantity(100).targetCpValue(20).build();
+    }
+
+    /**
+     * Holds the first transaction until the test opens the gate.
+     */
+    private static final class GatedTransactionTemplate extends TransactionTemplate {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch open = new CountDownLatch(1);
+
+        private GatedTransactionTemplate(PlatformTransactionManager transactionManager) {
+            super(transactionManager);
+        }
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            entered.countDown();
+            try {
+                open.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.execute(action);
+        }
+
+        void awaitEntered() throws InterruptedException {
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+        }
+
+        void open() {
+            open.countDown();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.api.feedFormulation.utils;
+
+import com.api.feedFormulation.dto.FeedRequestDTO;
+import com.api.feedFormulation.dto.FeedResponseDTO;
+import com.api.feedFormulation.model.FeedResponse;
+import com.api.feedFormulation.model.Ingredient;
+import com.api.feedFormulation.repository.FeedFormulationRepository;
+import com.api.feedFormulation.service.FeedFormulationService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of re-solving stored formulations against the H2 stand-in, with Hibernate statistics
+ * counting the rows each re-solve writes.
+ * Each test uses names of its own, as the database is shared by the tests of the class.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+public class FeedFormulationSupportTest {
+
+    private static final String ADDED = "Test premix";
+
+    @Autowired
+    private FeedFormulationSupport support;
+
+    @Autowired
+    private FeedFormulationService service;
+
+    @Autowired
+    private FeedFormulationRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testReapplyWritesOnlyTheChangedIngredients() {
+        FeedResponseDTO created = service.calculateFeed(FeedRequestDTO.builder()
+                .formulationName("reapply-changed").quantity(100).targetCpValue(20).build());
+        IngredientTable table = support.getIngredientTable();
+        int last = table.size() - 1;
+        // The first ingredient's crude protein changes, the last is replaced by a new one
+        IngredientTable changed = withChanges(table, table.crudeProtein(0) + 1);
+        double[] quantities = new double[changed.size()];
+        assertTrue(PearsonSquareSolver.solve(changed, 100, 20, quantities));
+        FormulationResult result = new FormulationResult(changed, 100, quantities);
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        IngredientChanges changes = transactionTemplate.execute(status -> {
+            FeedResponse response = repository.findWithIngredientsByFormulationIdAndDate(created.getFormulationId(),
+                    LocalDate.parse(created.getDate())).orElseThrow();
+            Map<String, Double> before = new HashMap<>();
+            response.getIngredients().forEach(ingredient -> before.put(ingredient.getName(), ingredient.getQuantity()));
+
+            IngredientChanges reapplied = support.reapplyFormulation(response, result);
+
+            assertEquals(List.of(table.name(last)), names(reapplied.removed()));
+            assertEquals(List.of(ADDED), names(reapplied.added()));
+            assertTrue(names(reapplied.updated()).contains(table.name(0)));
+            for (int i = 0; i < last; i++) {
+                boolean differs = i == 0 || Double.compare(before.get(changed.name(i)), quantities[i]) != 0;
+                assertEquals(differs, names(reapplied.updated()).contains(changed.name(i)), changed.name(i));
+            }
+            assertFalse(reapplied.updated().size() >= changed.size() - 1, "Some ingredients keep their values");
+            assertEquals(changed.size(), response.getIngredients().size());
+
+            statistics.clear();
+            entityManager.flush();
+            return reapplied;
+        });
+
+        EntityStatistics ingredients = statistics.getEntityStatistics(Ingredient.class.getName());
+        assertEquals(changes.updated().size(), ingredients.getUpdateCount());
+        assertEquals(1, ingredients.getInsertCount());
+        assertEquals(1, ingredients.getDeleteCount());
+        // Read past the response cache, which this test does not update
+        FeedResponse reread = repository.findWithIngredientsByFormulationIdAndDate(created.getFormulationId(),
+                LocalDate.parse(created.getDate())).orElseThrow();
+        Map<String, Double> after = new HashMap<>();
+        reread.getIngredients().forEach(ingredient -> after.put(ingredient.getName(), ingredient.getQuantity()));
+        assertEquals(changed.size(), after.size());
+        for (int i = 0; i < changed.size(); i++) {
+            assertEquals(quantities[i], after.get(changed.name(i)), changed.name(i));
+        }
+    }
+
+    @Test
+    public void testReapplyOfTheSameBreakdownChangesNothing() {
+        FeedResponseDTO created = service.calculateFeed(FeedRequestDTO.builder()
+                .formulationName("reapply-same").quantity(100).targetCpValue(20).build());
+        FormulationResult result = support.solve(100, 20, null);
+
+        IngredientChanges changes = transactionTemplate.execute(status -> support.reapplyFormulation(
+                repository.findWithIngredientsByFormulationIdAndDate(created.getFormulationId(),
+                        LocalDate.parse(created.getDate())).orElseThrow(), result));
+
+        assertTrue(changes.isEmpty());
+    }
+
+    private static IngredientTable withChanges(IngredientTable table, double firstCrudeProtein) {
+        int size = table.size();
+        String[] names = new String[size];
+        String[] categories = new String[size];
+        double[] crudeProtein = new double[size];
+        double[] ratio = new double[size];
+        double[] cost = new double[size];
+        double[] energy = new double[size];
+        double[] calcium = new double[size];
+        double[] maxInclusion = new double[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = table.name(i);
+            categories[i] = table.category(i);
+            crudeProtein[i] = table.crudeProtein(i);
+            ratio[i] = table.ratio(i);
+            cost[i] = table.cost(i);
+            energy[i] = table.energy(i);
+            calcium[i] = table.calcium(i);
+            maxInclusion[i] = table.maxInclusion(i);
+        }
+        crudeProtein[0] = firstCrudeProtein;
+        names[size - 1] = ADDED;
+        return IngredientTable.of(names, categories, crudeProtein, ratio, cost, energy, calcium, maxInclusion);
+    }
+
+    private static List<String> names(List<Ingredient> ingredients) {
+        return ingredients.stream().map(Ingredient::getName).toList();
+    }
+}
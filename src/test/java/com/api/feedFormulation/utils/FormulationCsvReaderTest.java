@@ -0,0 +1,56 @@
+package com.api.feedFormulation.utils;
+
+import com.api.feedFormulation.exception.InvalidInputException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FormulationCsvReaderTest {
+
+    @Test
+    public void testReadsWhatTheExportWrites() throws IOException {
+        StringWriter target = new StringWriter();
+        FormulationCsvWriter writer = new FormulationCsvWriter(target);
+        writer.writeHeader();
+        writer.writeIngredient("0ABC", "=Layers,\n\"1\"", "2024-05-01", 100, 20, "Maize", 9, 60);
+        writer.writeIngredient("0ABC", "=Layers,\n\"1\"", "2024-05-01", 100, 20, "Soya beans", 44, 40);
+        writer.writeIngredient("0ABD", "Broilers", "2024-05-02", 50, 18, "Maize", 9, 50);
+
+        FormulationCsvReader reader = new FormulationCsvReader(new StringReader(target.toString()));
+        ImportedFormulation first = reader.next();
+        ImportedFormulation second = reader.next();
+
+        assertEquals("=Layers,\n\"1\"", first.formulationName());
+        assertEquals(2, first.line());
+        assertEquals(2, first.ingredients().size());
+        assertEquals(40, first.ingredients().get(1).getQuantity());
+        assertEquals("0ABD", second.formulationId());
+        assertEquals(6, second.line());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testUnreadableLineRejectsOnlyItsFormulation() throws IOException {
+        String csv = "formulation_name,date,quantity,target_cp_value,ingredient,crude_protein,ingredient_quantity\n"
+                + "a,2024-05-01,100,20,Soya beans,44,40\n"
+                + "a,2024-05-01,100,20,Maize,9,lots\n"
+                + "b,2024-05-01,100,20,Maize,9,100\n";
+
+        FormulationCsvReader reader = new FormulationCsvReader(new StringReader(csv));
+
+        assertEquals("Line 3: ingredient_quantity is not a number.", reader.next().error());
+        assertNull(reader.next().error());
+    }
+
+    @Test
+    public void testHeaderMustNameTheRequiredColumns() {
+        assertThrows(InvalidInputException.class,
+                () -> new FormulationCsvReader(new StringReader("formulation_name,date,quantity\n")));
+    }
+}
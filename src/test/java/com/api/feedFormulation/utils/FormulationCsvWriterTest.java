@@ -0,0 +1,40 @@
+package com.api.feedFormulation.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FormulationCsvWriterTest {
+
+    @Test
+    public void testHeaderStartsWithByteOrderMark() throws IOException {
+        StringWriter target = new StringWriter();
+
+        new FormulationCsvWriter(target).writeHeader();
+
+        assertEquals("\uFEFF" + FormulationCsvWriter.HEADER + "\r\n", target.toString());
+    }
+
+    @Test
+    public void testTextIsQuotedAndNumbersArePlain() throws IOException {
+        StringWriter target = new StringWriter();
+
+        new FormulationCsvWriter(target).writeIngredient("0ABC", "Layers, \"phase 1\"", "2024-05-01", 100,
+                20, "Maize", 9, 0.0001);
+
+        assertEquals("0ABC,\"Layers, \"\"phase 1\"\"\",2024-05-01,100,20,Maize,9,0.0001\r\n", target.toString());
+    }
+
+    @Test
+    public void testFormulaLikeTextIsNotEvaluated() throws IOException {
+        StringWriter target = new StringWriter();
+
+        new FormulationCsvWriter(target).writeIngredient("0ABC", "=HYPERLINK(\"x\")", "2024-05-01", 100,
+                20, "Maize", 9, 10);
+
+        assertEquals("0ABC,\"'=HYPERLINK(\"\"x\"\")\",2024-05-01,100,20,Maize,9,10\r\n", target.toString());
+    }
+}
@@ -0,0 +1,34 @@
+package com.api.feedFormulation.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FormulationIdGeneratorTest {
+
+    @Test
+    public void testIdsAreFixedWidthAndStrictlyIncreasing() {
+        FormulationIdGenerator generator = new FormulationIdGenerator(7);
+        String previous = generator.nextId();
+        // More ids than the sequence holds in one millisecond
+        for (int i = 0; i < 20_000; i++) {
+            String id = generator.nextId();
+            assertEquals(13, id.length());
+            assertTrue(id.compareTo(previous) > 0, id + " <= " + previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    public void testNodesProduceDistinctIds() {
+        assertNotEquals(new FormulationIdGenerator(1).nextId(), new FormulationIdGenerator(2).nextId());
+    }
+
+    @Test
+    public void testInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new FormulationIdGenerator(1024));
+    }
+}
@@ -0,0 +1,78 @@
+package com.api.feedFormulation.utils;
+
+import com.api.feedFormulation.cache.FormulationResultCache;
+import com.api.feedFormulation.dto.IngredientDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of breakdowns shared through the result cache by quantities within the same thousandth,
+ * looked up and scaled as {@link FeedFormulationSupport#solve} does.
+ */
+public class FormulationResultTest {
+
+    private static final double TARGET = 20.0;
+
+    private final IngredientTable table = IngredientTable.of(
+            new String[]{"Soya beans", "Blood Meal", "Maize", "Cassava", "Salt", "Premix"},
+            new String[]{Constants.PROTEINS, Constants.PROTEINS, Constants.CARBOHYDRATES, Constants.CARBOHYDRATES,
+                    Constants.MINERALS, Constants.VITAMINS},
+            new double[]{44.0, 80.0, 9.0, 2.0, 0.0, 0.0},
+            new double[]{0.3, 0.1, 0.2, 0.1, 0.05, 0.05},
+            new double[6], new double[6], new double[6], new double[6]);
+    private final FormulationResultCache cache = new FormulationResultCache(100, Duration.ofMinutes(1));
+    private final AtomicInteger solved = new AtomicInteger();
+
+    @Test
+    public void testCachedBreakdownIsScaledToTheRequestedQuantity() {
+        FormulationResult first = solve(100.0001);
+        FormulationResult second = solve(100.0004);
+
+        assertEquals(1, solved.get());
+        assertEquals(1, cache.stats().getHitCount());
+        assertNotSame(first, second);
+        assertEquals(100.0004, second.getQuantity());
+        assertEquals(100.0004, total(second), 1e-9);
+        assertEquals(TARGET, crudeProtein(second), 1e-9);
+    }
+
+    @Test
+    public void testScaledToKeepsTheShares() {
+        FormulationResult result = solve(100);
+
+        FormulationResult scaled = result.scaledTo(250);
+
+        assertEquals(250, total(scaled), 1e-9);
+        assertEquals(TARGET, crudeProtein(scaled), 1e-9);
+        for (int i = 0; i < table.size(); i++) {
+            assertEquals(result.quantity(i) * 2.5, scaled.quantity(i), 1e-9);
+            assertEquals(scaled.quantity(i), scaled.getIngredientDTOs().get(i).getQuantity());
+        }
+    }
+
+    private FormulationResult solve(double quantity) {
+        FormulationResult result = cache.get(table, quantity, TARGET, null, key -> {
+            solved.incrementAndGet();
+            double[] quantities = new double[table.size()];
+            assertTrue(PearsonSquareSolver.solve(table, quantity, TARGET, quantities));
+            return new FormulationResult(table, quantity, quantities);
+        });
+        return result.getQuantity() == quantity ? result : result.scaledTo(quantity);
+    }
+
+    private static double total(FormulationResult result) {
+        return result.getIngredientDTOs().stream().mapToDouble(IngredientDTO::getQuantity).sum();
+    }
+
+    private static double crudeProtein(FormulationResult result) {
+        return result.getIngredientDTOs().stream()
+                .mapToDouble(ingredient -> ingredient.getQuantity() * ingredient.getCrudeProtein())
+                .sum() / result.getQuantity();
+    }
+}
@@ -0,0 +1,72 @@
+package com.api.feedFormulation.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LeastCostSolverTest {
+
+    private static final double MIN_ENERGY = 2800;
+    private static final double MIN_CALCIUM = 1.0;
+
+    private static final IngredientTable TABLE = IngredientTable.of(
+            new String[]{"Soya beans", "Fish Meal", "Maize", "Cassava", "Bone Meal", "Palm Oil"},
+            new String[]{Constants.PROTEINS, Constants.PROTEINS, Constants.CARBOHYDRATES, Constants.CARBOHYDRATES,
+                    Constants.MINERALS, Constants.OTHERS},
+            new double[]{44.0, 65.0, 9.0, 2.0, 0.0, 0.0},
+            new double[]{0.3, 0.1, 0.2, 0.1, 0.02, 0.02},
+            new double[]{450, 900, 200, 150, 250, 1000},
+            new double[]{3300, 2800, 3350, 3000, 0, 8800},
+            new double[]{0.25, 5.0, 0.02, 0.2, 30.0, 0.0},
+            new double[]{0.35, 0.1, 0.6, 0.3, 0.05, 0.05});
+
+    @Test
+    public void testSolveMeetsRequirements() {
+        double[] out = new double[TABLE.size()];
+
+        assertTrue(new LeastCostSolver().solve(TABLE, MIN_ENERGY, MIN_CALCIUM, 500, 18.0, out));
+
+        double total = 0;
+        double protein = 0;
+        double energy = 0;
+        double calcium = 0;
+        for (int i = 0; i < out.length; i++) {
+            total += out[i];
+            protein += out[i] * TABLE.crudeProtein(i);
+            energy += out[i] * TABLE.energy(i);
+            calcium += out[i] * TABLE.calcium(i);
+            assertTrue(out[i] <= TABLE.maxInclusion(i) * 500 + 1e-9);
+        }
+        assertEquals(500, total, 1e-9);
+        assertTrue(protein / total >= 18.0 - 1e-9);
+        assertTrue(energy / total >= MIN_ENERGY - 1e-6);
+        assertTrue(calcium / total >= MIN_CALCIUM - 1e-9);
+        // Fixed additives are included at least at their ratio
+        assertTrue(out[4] >= 0.02 * 500 - 1e-9);
+        assertTrue(out[5] >= 0.02 * 500 - 1e-9);
+    }
+
+    @Test
+    public void testWarmStartMatchesColdSolve() {
+        LeastCostSolver warmSolver = new LeastCostSolver();
+        double[] warm = new double[TABLE.size()];
+        double[] cold = new double[TABLE.size()];
+
+        assertTrue(warmSolver.solve(TABLE, MIN_ENERGY, MIN_CALCIUM, 100, 16.0, warm));
+        for (double target = 14.0; target <= 22.0; target += 0.5) {
+            assertTrue(warmSolver.solve(TABLE, MIN_ENERGY, MIN_CALCIUM, 250, target, warm));
+            assertTrue(new LeastCostSolver().solve(TABLE, MIN_ENERGY, MIN_CALCIUM, 250, target, cold));
+            assertArrayEquals(cold, warm, 1e-6);
+        }
+    }
+
+    @Test
+    public void testInfeasibleTarget() {
+        double[] out = new double[TABLE.size()];
+
+        assertFalse(new LeastCostSolver().solve(TABLE, MIN_ENERGY, MIN_CALCIUM, 100, 40.0, out));
+    }
+}
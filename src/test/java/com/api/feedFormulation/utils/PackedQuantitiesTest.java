@@ -0,0 +1,25 @@
+package com.api.feedFormulation.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PackedQuantitiesTest {
+
+    @Test
+    public void testRoundTripIsExact() {
+        double[] quantities = {0, 1.0 / 3, 12.5, 987.654321, Double.MIN_VALUE};
+
+        byte[] packed = PackedQuantities.pack(quantities);
+
+        assertEquals(quantities.length * Double.BYTES, packed.length);
+        assertArrayEquals(quantities, PackedQuantities.unpack(packed));
+    }
+
+    @Test
+    public void testUnpackRejectsPartialQuantity() {
+        assertThrows(IllegalArgumentException.class, () -> PackedQuantities.unpack(new byte[12]));
+    }
+}
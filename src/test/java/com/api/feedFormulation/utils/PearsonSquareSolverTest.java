@@ -0,0 +1,56 @@
+package com.api.feedFormulation.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PearsonSquareSolverTest {
+
+    private static final double[] CRUDE_PROTEIN = {44.0, 80.0, 9.0, 2.0, 0.0, 0.0};
+    private static final double[] RATIO = {0.3, 0.1, 0.2, 0.1, 0.05, 0.05};
+    private static final int[] GROUP = {IngredientTable.PROTEIN, IngredientTable.PROTEIN,
+            IngredientTable.BASAL, IngredientTable.BASAL, IngredientTable.FIXED, IngredientTable.FIXED};
+
+    @Test
+    public void testSolveTwo() {
+        // Soya beans (44%) and maize (9%) to 18%: 9 parts soya to 26 parts maize
+        assertEquals(9.0 / 35.0, PearsonSquareSolver.solveTwo(44.0, 9.0, 18.0), 1e-12);
+        assertEquals(26.0 / 35.0, PearsonSquareSolver.solveTwo(9.0, 44.0, 18.0), 1e-12);
+    }
+
+    @Test
+    public void testSolveTwoOutOfRange() {
+        assertTrue(Double.isNaN(PearsonSquareSolver.solveTwo(44.0, 9.0, 50.0)));
+        assertTrue(Double.isNaN(PearsonSquareSolver.solveTwo(44.0, 9.0, 5.0)));
+    }
+
+    @Test
+    public void testSolveGroupedHitsTargetAndQuantity() {
+        double[] out = new double[RATIO.length];
+
+        assertTrue(PearsonSquareSolver.solveGrouped(CRUDE_PROTEIN, RATIO, GROUP, 200, 20.0, out));
+
+        double total = 0;
+        double protein = 0;
+        for (int i = 0; i < out.length; i++) {
+            total += out[i];
+            protein += out[i] * CRUDE_PROTEIN[i];
+        }
+        assertEquals(200, total, 1e-9);
+        assertEquals(20.0, protein / total, 1e-9);
+        // Fixed ingredients keep their share and group members keep their relative ratios
+        assertEquals(10, out[4], 1e-9);
+        assertEquals(3.0, out[0] / out[1], 1e-9);
+        assertEquals(2.0, out[2] / out[3], 1e-9);
+    }
+
+    @Test
+    public void testSolveGroupedUnreachableTarget() {
+        double[] out = new double[RATIO.length];
+
+        assertFalse(PearsonSquareSolver.solveGrouped(CRUDE_PROTEIN, RATIO, GROUP, 200, 60.0, out));
+        assertFalse(PearsonSquareSolver.solveGrouped(CRUDE_PROTEIN, RATIO, GROUP, 200, 1.0, out));
+    }
+}
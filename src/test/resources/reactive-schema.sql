@@ -0,0 +1,6 @@
+-- Schema the JPA entities create, for the reactive tests that run without Hibernate
+create sequence if not exists feed_response_seq start with 1 increment by 50;
+create sequence if not exists ingredient_seq start with 1 increment by 150;
+create table if not exists feed_response (id bigint not null primary key, date date, formulation_id varchar(16) unique, formulation_name varchar(255) constraint uk_feed_response_formulation_name unique, quantity float(53) not null, target_cp_value float(53) not null, catalog_version bigint, packed_quantities varbinary(1024), version bigint default 0 not null);
+create table if not exists ingredient (id bigint not null primary key, crude_protein float(53) not null, name varchar(255), quantity float(53) not null, feed_response_id bigint references feed_response(id));
+create table if not exists ingredient_catalog (id bigint not null primary key, catalog_version bigint not null, ingredient_position int not null, name varchar(255), category varchar(255), crude_protein float(53) not null, ratio float(53) not null, cost float(53) not null, energy float(53) not null, calcium float(53) not null, max_inclusion float(53) not null);